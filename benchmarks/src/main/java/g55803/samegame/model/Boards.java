@@ -0,0 +1,44 @@
+package g55803.samegame.model;
+
+/**
+ * Provides the boards the benchmarks run on. Boards are drawn from a fixed seed so that every run measures the same
+ * positions.
+ *
+ * @author Nathan Furnal
+ */
+public final class Boards {
+
+    private Boards() {
+    }
+
+    /**
+     * Creates a square board from a seed.
+     *
+     * @param size    the number of rows and columns.
+     * @param nColors the number of colors.
+     * @param seed    the seed of the colors.
+     * @return the board.
+     */
+    public static Field board(int size, int nColors, long seed) {
+        return Field.fromSeed(size, size, nColors, seed);
+    }
+
+    /**
+     * Finds a cell of the largest group of a board, which is the most expensive move to play.
+     *
+     * @param field the board.
+     * @return the cell, or -1 when no move is left.
+     */
+    public static int largestGroup(Field field) {
+        int best = -1;
+        int bestSize = 1;
+        for (int cell = 0; cell < field.getNCells(); cell++) {
+            int size = field.groupSize(cell);
+            if (size > bestSize) {
+                best = cell;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,117 @@
+package g55803.samegame.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths of the field. The benchmark lives in the model package to reach the package-private methods
+ * used by the facade.
+ * <p>
+ * Benchmarks that play a move undo it in the same call, so that every call starts from the same board.
+ *
+ * @author Nathan Furnal
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark {
+    @Param({"10", "15", "19", "200"})
+    private int size;
+
+    @Param({"3", "5"})
+    private int nColors;
+
+    @Param({"42"})
+    private long seed;
+
+    private Field board;
+    private int cell;
+    private Position position;
+    private int[] moves;
+
+    @Setup
+    public void setUp() {
+        board = Boards.board(size, nColors, seed);
+        cell = Boards.largestGroup(board);
+        position = board.toPosition(cell);
+        moves = new int[board.getNCells() / 2];
+    }
+
+    @Benchmark
+    public Field construct() {
+        return new Field(size, size, nColors);
+    }
+
+    @Benchmark
+    public Field copy() {
+        return new Field(board);
+    }
+
+    @Benchmark
+    public Set<Position> groupColor() {
+        return board.groupColor(position);
+    }
+
+    @Benchmark
+    public int[] groupCells() {
+        return board.groupCells(position);
+    }
+
+    /**
+     * Lists the moves of a board after a move, which is the inner loop of the solvers.
+     */
+    @Benchmark
+    public int playLegalMoves() {
+        Move move = board.play(cell);
+        int n = board.legalMoves(moves);
+        board.undo(move);
+        return n;
+    }
+
+    /**
+     * Asks for the end of the game on a board whose groups are already known.
+     */
+    @Benchmark
+    public boolean isGameOver() {
+        return board.isGameOver();
+    }
+
+    /**
+     * Asks for the end of the game right after a move, which is what the game does after every click.
+     */
+    @Benchmark
+    public boolean playIsGameOver() {
+        Move move = board.play(cell);
+        boolean over = board.isGameOver();
+        board.undo(move);
+        return over;
+    }
+
+    @Benchmark
+    public Field playUndo() {
+        board.undo(board.play(cell));
+        return board;
+    }
+
+    @Benchmark
+    public Field copyPlay() {
+        Field f = new Field(board);
+        f.play(cell);
+        return f;
+    }
+}
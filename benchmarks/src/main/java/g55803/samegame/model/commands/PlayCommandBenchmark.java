@@ -0,0 +1,55 @@
+package g55803.samegame.model.commands;
+
+import g55803.samegame.model.Boards;
+import g55803.samegame.model.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a play command executed then cancelled, which is the cost of a move followed by an undo in the game.
+ *
+ * @author Nathan Furnal
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayCommandBenchmark {
+    @Param({"10", "15", "19"})
+    private int size;
+
+    @Param({"3", "5"})
+    private int nColors;
+
+    @Param({"42"})
+    private long seed;
+
+    private Field board;
+    private PlayCommand command;
+
+    @Setup
+    public void setUp() {
+        board = Boards.board(size, nColors, seed);
+        command = new PlayCommand(board, board.toPosition(Boards.largestGroup(board)));
+    }
+
+    @Benchmark
+    public Field executeCancel() {
+        command.execute();
+        command.cancel();
+        return board;
+    }
+}
@@ -0,0 +1,77 @@
+package g55803.samegame.model.record;
+
+import g55803.samegame.model.Boards;
+import g55803.samegame.model.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the replay of a stream of recorded games, from the bytes to the final boards. The games are played out by
+ * always taking the largest group.
+ *
+ * @author Nathan Furnal
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+    @Param({"10", "15", "19"})
+    private int size;
+
+    @Param({"3", "5"})
+    private int nColors;
+
+    @Param({"42"})
+    private long seed;
+
+    @Param({"100"})
+    private int nGames;
+
+    private byte[] stream;
+
+    @Setup
+    public void setUp() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RecordWriter writer = new RecordWriter(bytes)) {
+            for (int k = 0; k < nGames; k++) {
+                Field f = Boards.board(size, nColors, seed + k);
+                writer.begin(f);
+                int cell;
+                while ((cell = Boards.largestGroup(f)) >= 0) {
+                    writer.move(f.play(cell).getCell());
+                }
+                writer.end();
+            }
+        }
+        stream = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public long readReplay() throws IOException {
+        long total = 0;
+        try (RecordReader reader = new RecordReader(new ByteArrayInputStream(stream))) {
+            GameRecord record;
+            while ((record = reader.read()) != null) {
+                total += record.replay().getScore();
+            }
+        }
+        return total;
+    }
+}
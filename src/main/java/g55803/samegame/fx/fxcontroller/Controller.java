@@ -2,9 +2,15 @@ package g55803.samegame.fx.fxcontroller;
 
 import g55803.samegame.fx.fxview.FXView;
 import g55803.samegame.model.Facade;
+import g55803.samegame.model.Field;
 import g55803.samegame.model.Position;
+import g55803.samegame.solver.MctsPlayer;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
+import java.time.Duration;
+import java.util.OptionalLong;
+
 /**
  * Provides a controller to manage the interaction between model and view.
  *
@@ -14,6 +20,9 @@ public class Controller {
     private final Facade model;
     private final FXView view;
     private final Stage stage;
+    private final MctsPlayer player;
+    private Thread search;
+    private long hints;
 
     /**
      * Creates the controller with a model and a view to implement an MVC.
@@ -24,6 +33,7 @@ public class Controller {
     public Controller(Facade model, Stage stage) {
         this.model = model;
         this.stage = stage;
+        this.player = new MctsPlayer();
         this.view = new FXView(this, model);
         view.show(stage);
     }
@@ -51,14 +61,37 @@ public class Controller {
         model.redo();
     }
 
+    /**
+     * Asks the computer player for the best move and shows it on the view. The search runs in the background so the
+     * view stays responsive, the hint is shown once it is done. A search still running is stopped first, and a hint
+     * is dropped if the board changed during its search.
+     */
+    public void hint() {
+        if (search != null) {
+            search.interrupt();
+        }
+        Field field = model.copyField();
+        long version = model.getVersion();
+        long request = ++hints;
+        search = new Thread(() -> {
+            Position p = player.bestMove(field, Duration.ofSeconds(1));
+            if (p != null && !Thread.currentThread().isInterrupted()) {
+                Platform.runLater(() -> {
+                    if (request == hints && version == model.getVersion()) {
+                        view.showHint(p);
+                    }
+                });
+            }
+        }, "hint");
+        search.setDaemon(true);
+        search.start();
+    }
+
     /**
      * Manages the beginning of the game.
      */
     public void start() {
-        int row = view.getRowValue();
-        int col = view.getColValue();
-        int nColors = view.getColorsValue();
-        model.newField(row, col, nColors);
+        newField();
         view.startup();
     }
 
@@ -67,10 +100,22 @@ public class Controller {
      */
     public void reset() {
         view.reset();
+        newField();
+    }
+
+    /**
+     * Creates a new field from the parameters of the start layer, drawn from its seed when one is given.
+     */
+    private void newField() {
         int row = view.getRowValue();
         int col = view.getColValue();
-        int ncColors = view.getColorsValue();
-        model.newField(row, col, ncColors);
+        int nColors = view.getColorsValue();
+        OptionalLong seed = view.getSeedValue();
+        if (seed.isPresent()) {
+            model.newField(row, col, nColors, seed.getAsLong());
+        } else {
+            model.newField(row, col, nColors);
+        }
     }
 
     /**
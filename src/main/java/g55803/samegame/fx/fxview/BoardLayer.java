@@ -0,0 +1,46 @@
+package g55803.samegame.fx.fxview;
+
+import g55803.samegame.model.GameEvent;
+import g55803.samegame.model.Position;
+import g55803.samegame.utils.Observer;
+import javafx.scene.layout.Region;
+
+/**
+ * Provides the board area a game is played on, whatever way it is drawn. The board follows the events of the model
+ * and only redraws what they changed.
+ *
+ * @author Nathan Furnal
+ */
+public interface BoardLayer extends Observer<GameEvent> {
+
+    /**
+     * Refreshes the whole board area.
+     */
+    void refresh();
+
+    /**
+     * Refreshes the parts of the board area changed by an event, the others are left as they are.
+     *
+     * @param event the event, possibly coalesced from several moves.
+     */
+    void refresh(GameEvent event);
+
+    /**
+     * Shows a suggested move by outlining its group for a short while.
+     *
+     * @param p the position of the suggested move.
+     */
+    void showHint(Position p);
+
+    /**
+     * Gets the node holding the board area, to put it in a scene.
+     *
+     * @return the node of the board area.
+     */
+    Region getRegion();
+
+    @Override
+    default void update(GameEvent event) {
+        refresh(event);
+    }
+}
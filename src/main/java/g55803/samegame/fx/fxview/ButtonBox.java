@@ -25,6 +25,7 @@ public class ButtonBox extends VBox {
     private final Button resetButton;
     private final Button exitButton;
     private final Button openButton;
+    private final Button hintButton;
 
     /**
      * Generates a vertical box with utility buttons.
@@ -36,8 +37,10 @@ public class ButtonBox extends VBox {
         this.resetButton = new Button("Reset");
         this.exitButton = new Button("Exit");
         this.openButton = new Button("Open");
-        List<Button> buttons = new ArrayList<>(List.of(undoButton, redoButton, resetButton, exitButton, openButton));
-        this.getChildren().addAll(undoButton, redoButton, resetButton, exitButton, openButton);
+        this.hintButton = new Button("Hint");
+        List<Button> buttons = new ArrayList<>(List.of(undoButton, redoButton, hintButton, resetButton, exitButton,
+                openButton));
+        this.getChildren().addAll(buttons);
         for (Button b : buttons) {
             b.setFont(Font.loadFont(Objects.requireNonNull(getClass().getResource("/fonts/retro-font.ttf")).toString(),
                     14));
@@ -87,4 +90,13 @@ public class ButtonBox extends VBox {
     public Button getOpenButton() {
         return openButton;
     }
+
+    /**
+     * Gets the hint button.
+     *
+     * @return the hint button.
+     */
+    public Button getHintButton() {
+        return hintButton;
+    }
 }
@@ -0,0 +1,241 @@
+package g55803.samegame.fx.fxview;
+
+import g55803.samegame.fx.fxcontroller.Controller;
+import g55803.samegame.model.Facade;
+import g55803.samegame.model.GameEvent;
+import g55803.samegame.model.Position;
+import g55803.samegame.model.Tile;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Provides a board area drawn on a single canvas, for boards too large for one node per tile. The cell under the mouse
+ * is found from its coordinates, and changes only mark the columns to redraw: they are drawn together on the next
+ * animation pulse, however many changes came in between.
+ *
+ * @author Nathan Furnal
+ */
+public class CanvasLayer extends StackPane implements BoardLayer {
+    private final Facade model;
+    private final Controller controller;
+    private final Canvas canvas;
+    private final double side;
+    private final Color backColor = Color.DARKSLATEGRAY;
+    private final HashMap<String, Color> colorMap = new HashMap<>();
+    private final BitSet dirty = new BitSet();
+    private final AnimationTimer pulse;
+    private final GroupCache groups;
+    private final BitSet hoveredCols = new BitSet();
+    private HashSet<Position> hinted = new HashSet<>();
+    private Position hover;
+    private Position flashed;
+
+    /**
+     * Creates the board area, with tiles of the same size as the ones of {@link GameLayer}.
+     *
+     * @param model  the model.
+     * @param c      the controller.
+     * @param width  the width of the window.
+     * @param height the height of the window.
+     */
+    public CanvasLayer(Facade model, Controller c, int width, int height) {
+        this.model = model;
+        this.controller = c;
+        this.groups = new GroupCache(model);
+        this.setBackground(new Background(new BackgroundFill(backColor, CornerRadii.EMPTY, Insets.EMPTY)));
+        colorMap.put("r", Color.CORAL);
+        colorMap.put("g", Color.LIGHTGREEN);
+        colorMap.put("b", Color.DARKTURQUOISE);
+        colorMap.put("y", Color.LIGHTGOLDENRODYELLOW);
+        colorMap.put("p", Color.VIOLET);
+        float numSize = Math.min(width, height) - 100;
+        float denomSize = Math.max(model.getNCols(), model.getNRows());
+        this.side = Math.min(numSize / denomSize - 2, 30);
+        this.canvas = new Canvas(side * model.getNCols(), side * model.getNRows());
+        this.getChildren().add(canvas);
+        this.setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+        this.setBorder(new Border(new BorderStroke(Color.BLACK,
+                BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderStroke.MEDIUM)));
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                draw();
+            }
+        };
+        canvas.addEventHandler(MouseEvent.MOUSE_MOVED, e -> setHover(toPosition(e)));
+        canvas.addEventHandler(MouseEvent.MOUSE_EXITED, e -> setHover(null));
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> click(toPosition(e)));
+        refresh();
+        draw();
+    }
+
+    @Override
+    public void refresh() {
+        for (int j = 0; j < model.getNCols(); j++) {
+            markDirty(j);
+        }
+        rehover();
+    }
+
+    @Override
+    public void refresh(GameEvent event) {
+        for (int j : event.getChangedColumns()) {
+            markDirty(j);
+        }
+        rehover();
+    }
+
+    @Override
+    public void showHint(Position p) {
+        HashSet<Position> positions = model.groupColor(p);
+        Timeline flash = new Timeline(
+                new KeyFrame(Duration.seconds(0), e -> {
+                    hinted = positions;
+                    markDirty(positions);
+                }),
+                new KeyFrame(Duration.seconds(1.5), e -> {
+                    hinted = new HashSet<>();
+                    markDirty(positions);
+                })
+        );
+        flash.play();
+    }
+
+    @Override
+    public Region getRegion() {
+        return this;
+    }
+
+    /**
+     * Finds the cell under the mouse.
+     *
+     * @param e the mouse event.
+     * @return the position of the cell, <code>null</code> if the mouse is outside the board.
+     */
+    private Position toPosition(MouseEvent e) {
+        int row = (int) (e.getY() / side);
+        int col = (int) (e.getX() / side);
+        if (e.getX() < 0 || e.getY() < 0 || row >= model.getNRows() || col >= model.getNCols()) {
+            return null;
+        }
+        return new Position(row, col);
+    }
+
+    /**
+     * Highlights the group of the cell under the mouse, if it moved to another cell.
+     *
+     * @param p the position of the cell, <code>null</code> if the mouse left the board.
+     */
+    private void setHover(Position p) {
+        if (p == null ? hover != null : !p.equals(hover)) {
+            hover = p;
+            rehover();
+        }
+    }
+
+    /**
+     * Highlights the group under the mouse again, since either the mouse or the board changed. The columns of the
+     * group highlighted before are kept, since the board may have changed since.
+     */
+    private void rehover() {
+        for (int j = hoveredCols.nextSetBit(0); j >= 0; j = hoveredCols.nextSetBit(j + 1)) {
+            markDirty(j);
+        }
+        hoveredCols.clear();
+        if (hover != null) {
+            groups.forEach(hover.getRow(), hover.getCol(), cell -> hoveredCols.set(groups.toCol(cell)));
+            for (int j = hoveredCols.nextSetBit(0); j >= 0; j = hoveredCols.nextSetBit(j + 1)) {
+                markDirty(j);
+            }
+        }
+    }
+
+    /**
+     * Plays the group of a clicked cell, or flashes the cell when the move can't be played.
+     *
+     * @param p the position of the cell.
+     */
+    private void click(Position p) {
+        if (p == null || groups.groupId(p.getRow(), p.getCol()) < 0) {
+            return;
+        }
+        if (groups.groupSize(p.getRow(), p.getCol()) < 2) {
+            Timeline flash = new Timeline(
+                    new KeyFrame(Duration.seconds(0), e -> {
+                        flashed = p;
+                        markDirty(p.getCol());
+                    }),
+                    new KeyFrame(Duration.seconds(.5), e -> {
+                        flashed = null;
+                        markDirty(p.getCol());
+                    })
+            );
+            flash.play();
+        } else {
+            controller.play(p);
+        }
+    }
+
+    /**
+     * Marks the columns of some cells to be redrawn.
+     *
+     * @param positions the positions of the cells.
+     */
+    private void markDirty(HashSet<Position> positions) {
+        for (Position p : positions) {
+            markDirty(p.getCol());
+        }
+    }
+
+    /**
+     * Marks a column to be redrawn on the next pulse.
+     *
+     * @param col the column.
+     */
+    private void markDirty(int col) {
+        dirty.set(col);
+        pulse.start();
+    }
+
+    /**
+     * Redraws the columns marked since the last pulse, then waits for the next changes.
+     */
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        int hoveredId = hover == null ? -1 : groups.groupId(hover.getRow(), hover.getCol());
+        for (int j = dirty.nextSetBit(0); j >= 0; j = dirty.nextSetBit(j + 1)) {
+            gc.setFill(backColor);
+            gc.fillRect(j * side, 0, side, side * model.getNRows());
+            for (int i = 0; i < model.getNRows(); i++) {
+                Position p = new Position(i, j);
+                Tile t = model.getTile(p);
+                if (t == null) {
+                    continue;
+                }
+                gc.setGlobalAlpha(hoveredId >= 0 && groups.groupId(i, j) == hoveredId ? .6 : 1.);
+                gc.setFill(p.equals(flashed) ? Color.RED : colorMap.get(t.getColor().code));
+                gc.fillRoundRect(j * side, i * side, side, side, 10, 10);
+                if (hinted.contains(p)) {
+                    gc.setStroke(Color.WHITE);
+                    gc.setLineWidth(2);
+                    gc.strokeRoundRect(j * side + 1, i * side + 1, side - 2, side - 2, 10, 10);
+                }
+            }
+        }
+        gc.setGlobalAlpha(1.);
+        dirty.clear();
+        pulse.stop();
+    }
+}
@@ -2,8 +2,11 @@ package g55803.samegame.fx.fxview;
 
 import g55803.samegame.fx.fxcontroller.Controller;
 import g55803.samegame.model.Facade;
+import g55803.samegame.model.GameEvent;
+import g55803.samegame.model.Position;
 import g55803.samegame.model.State;
 import g55803.samegame.utils.Observer;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -15,24 +18,27 @@ import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 
 import java.util.Objects;
+import java.util.OptionalLong;
 
 /**
  * Provides the main view and ties all the interaction together for the user.
  *
  * @author Nathan Furnal
  */
-public class FXView extends BorderPane implements Observer {
+public class FXView extends BorderPane implements Observer<GameEvent> {
     private final Facade model;
     private final Controller controller;
     private final int WIDTH = 1000;
     private final int HEIGHT = 750;
-    private GameLayer gameLayer;
+    private BoardLayer gameLayer;
+    private boolean canvas;
     private ScoreBox scoreBox;
     private StartLayer startLayer;
 
     /**
      * Creates a view with different layers, each managing a type of interaction (score, user interaction, buttons).
-     * This view as well as its components all use a facade to the underlying model which is a Field object.
+     * This view as well as its components all use a facade to the underlying model which is a Field object. The view
+     * is updated on the JavaFX thread, with the events of a burst of moves coalesced into one.
      *
      * @param controller the controller.
      * @param model      the model.
@@ -40,7 +46,7 @@ public class FXView extends BorderPane implements Observer {
     public FXView(Controller controller, Facade model) {
         this.controller = controller;
         this.model = model;
-        model.subscribe(this);
+        model.getEvents().subscribe(this, Platform::runLater, GameEvent::merge);
         this.setBackground(new Background(new BackgroundFill(Color.SILVER, CornerRadii.EMPTY, Insets.EMPTY)));
         this.setBorder(new Border(new BorderStroke(Color.BLACK,
                 BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderStroke.THICK)));
@@ -87,12 +93,24 @@ public class FXView extends BorderPane implements Observer {
     }
 
     /**
-     * Sets the game layer.
+     * Sets the game layer, drawn the way chosen on the start layer.
      */
     private void setGameLayer() {
-        this.gameLayer = new GameLayer(model, controller, WIDTH, HEIGHT);
-        gameLayer.setAlignment(Pos.CENTER);
-        this.setCenter(gameLayer);
+        this.canvas = startLayer.isCanvas();
+        this.gameLayer = newBoard();
+        this.setCenter(gameLayer.getRegion());
+    }
+
+    /**
+     * Creates a board area, drawn the way chosen when the game started.
+     *
+     * @return a board drawn on a canvas, or with one node per tile.
+     */
+    private BoardLayer newBoard() {
+        if (canvas) {
+            return new CanvasLayer(model, controller, WIDTH, HEIGHT);
+        }
+        return new GameLayer(model, controller, WIDTH, HEIGHT);
     }
 
     /**
@@ -115,6 +133,7 @@ public class FXView extends BorderPane implements Observer {
         this.setRight(buttonBox);
         buttonBox.getUndoButton().setOnMouseClicked(e -> controller.undo());
         buttonBox.getRedoButton().setOnMouseClicked(e -> controller.redo());
+        buttonBox.getHintButton().setOnMouseClicked(e -> controller.hint());
         buttonBox.getExitButton().setOnMouseClicked(e -> controller.exit());
         buttonBox.getResetButton().setOnMouseClicked(e -> {
             if (!startLayer.isVisible()) {
@@ -123,9 +142,10 @@ public class FXView extends BorderPane implements Observer {
         });
         buttonBox.getOpenButton().setOnMouseClicked(e -> {
             Stage other = new Stage();
-            GameLayer layer = new GameLayer(model, controller, WIDTH, HEIGHT);
-            model.subscribe(layer);
-            other.setScene(new Scene(layer));
+            BoardLayer layer = newBoard();
+            // Held weakly, so the layer goes away with its window even if it is closed without a close request.
+            model.getEvents().subscribeWeak(layer, Platform::runLater, GameEvent::merge);
+            other.setScene(new Scene(layer.getRegion()));
             other.show();
             other.setOnCloseRequest(ev -> model.unsubscribe(layer));
         });
@@ -149,6 +169,15 @@ public class FXView extends BorderPane implements Observer {
         this.scoreBox.refresh();
     }
 
+    /**
+     * Shows a suggested move on the board.
+     *
+     * @param p the position of the suggested move.
+     */
+    public void showHint(Position p) {
+        this.gameLayer.showHint(p);
+    }
+
     /**
      * Sets the title of the layer.
      */
@@ -167,7 +196,7 @@ public class FXView extends BorderPane implements Observer {
      * for a new start.
      */
     public void reset() {
-        this.getChildren().remove(gameLayer);
+        this.getChildren().remove(gameLayer.getRegion());
         if (model.getState() == State.WON) {
             setStartLayer("AMAZING, YOU'VE BEATEN THE GAME. Fancy another play?");
         } else if (model.getState() == State.GAME_OVER) {
@@ -177,12 +206,22 @@ public class FXView extends BorderPane implements Observer {
         }
     }
 
+    /**
+     * Refreshes the parts of the display changed by an event.
+     *
+     * @param event the event.
+     */
+    private void refresh(GameEvent event) {
+        this.gameLayer.refresh(event);
+        this.scoreBox.refresh();
+    }
+
     @Override
-    public void update() {
-        switch (model.getState()) {
-            case PLAY, UNDO, REDO -> refresh();
+    public void update(GameEvent event) {
+        switch (event.getState()) {
+            case PLAY, UNDO, REDO -> refresh(event);
             case WON, GAME_OVER -> {
-                refresh();
+                refresh(event);
                 controller.reset();
             }
         }
@@ -214,4 +253,13 @@ public class FXView extends BorderPane implements Observer {
     public int getColorsValue() {
         return startLayer.getColorsValue();
     }
+
+    /**
+     * Gets the seed text field without exposing the starting layer.
+     *
+     * @return the seed, or an empty value for a random board.
+     */
+    public OptionalLong getSeedValue() {
+        return startLayer.getSeedValue();
+    }
 }
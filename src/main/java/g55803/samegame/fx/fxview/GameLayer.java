@@ -2,8 +2,9 @@ package g55803.samegame.fx.fxview;
 
 import g55803.samegame.fx.fxcontroller.Controller;
 import g55803.samegame.model.Facade;
+import g55803.samegame.model.GameEvent;
 import g55803.samegame.model.Position;
-import g55803.samegame.utils.Observer;
+import g55803.samegame.model.Tile;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.event.EventHandler;
@@ -16,6 +17,7 @@ import javafx.scene.paint.Paint;
 import javafx.scene.shape.Rectangle;
 import javafx.util.Duration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -24,16 +26,19 @@ import java.util.HashSet;
  *
  * @author Nathan Furnal
  */
-public class GameLayer extends GridPane implements Observer {
+public class GameLayer extends GridPane implements BoardLayer {
     private final Facade model;
     private final Controller controller;
     private final Rectangle[][] recArray;
     private final Color backColor = Color.DARKSLATEGRAY;
     private final HashMap<String, Color> colorMap = new HashMap<>();
+    private final GroupCache groups;
+    private final ArrayList<Rectangle> hovered = new ArrayList<>();
 
     /**
      * Creates the board area with a color map to use JavaFX colors. It also keeps tracks of the rectangles
-     * in a 2D array to help mirror the underlying model when updating the UI.
+     * in a 2D array to help mirror the underlying model when updating the UI. The groups hovered and clicked are
+     * read from a cache of the groups of the board, computed once per version of the board.
      *
      * @param model  the model.
      * @param c      the controller.
@@ -43,6 +48,7 @@ public class GameLayer extends GridPane implements Observer {
     public GameLayer(Facade model, Controller c, int width, int height) {
         this.model = model;
         this.controller = c;
+        this.groups = new GroupCache(model);
         this.setAlignment(Pos.CENTER);
         this.setBackground(new Background(new BackgroundFill(backColor, CornerRadii.EMPTY, Insets.EMPTY)));
         colorMap.put("r", Color.CORAL);
@@ -62,14 +68,15 @@ public class GameLayer extends GridPane implements Observer {
                 r.setArcHeight(10);
                 r.setArcWidth(10);
                 recArray[i][j] = r;
-                if (model.getTile(new Position(i, j)) != null) {
-                    r.setFill(colorMap.get(model.getTile(new Position(i, j)).getColor().code));
+                Tile t = model.getTile(new Position(i, j));
+                if (t != null) {
+                    r.setFill(colorMap.get(t.getColor().code));
                 } else {
                     r.setFill(backColor);
                 }
-                r.addEventHandler(MouseEvent.MOUSE_ENTERED, makeMouseEvent(r, .6));
-                r.addEventHandler(MouseEvent.MOUSE_EXITED, makeMouseEvent(r, 1));
-                r.addEventHandler(MouseEvent.MOUSE_CLICKED, makeClickEvent(r));
+                r.addEventHandler(MouseEvent.MOUSE_ENTERED, makeEnterEvent(i, j));
+                r.addEventHandler(MouseEvent.MOUSE_EXITED, makeExitEvent());
+                r.addEventHandler(MouseEvent.MOUSE_CLICKED, makeClickEvent(r, i, j));
                 this.add(r, j, i); // GridPane adds the column before the row
             }
         }
@@ -79,57 +86,113 @@ public class GameLayer extends GridPane implements Observer {
                 BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderStroke.MEDIUM)));
     }
 
+    @Override
+    public void refresh() {
+        for (int j = 0; j < model.getNCols(); j++) {
+            refreshColumn(j);
+        }
+    }
+
+    @Override
+    public void refresh(GameEvent event) {
+        for (int j : event.getChangedColumns()) {
+            refreshColumn(j);
+        }
+    }
+
     /**
-     * Refreshes the board area.
+     * Refreshes a column of the board area.
+     *
+     * @param j the column.
      */
-    public void refresh() {
+    private void refreshColumn(int j) {
         for (int i = 0; i < model.getNRows(); i++) {
-            for (int j = 0; j < model.getNCols(); j++) {
-                if (model.getTile(new Position(i, j)) != null) {
-                    recArray[i][j].setFill(colorMap.get(model.getTile(new Position(i, j)).getColor().code));
-                    recArray[i][j].setOpacity(1.);
-                    recArray[i][j].setDisable(false);
-                } else {
-                    recArray[i][j].setFill(backColor);
-                    recArray[i][j].setDisable(true);
-                }
+            Rectangle r = recArray[i][j];
+            Tile t = model.getTile(new Position(i, j));
+            if (t != null) {
+                r.setFill(colorMap.get(t.getColor().code));
+                r.setOpacity(1.);
+                r.setDisable(false);
+            } else {
+                r.setFill(backColor);
+                r.setDisable(true);
             }
         }
     }
 
+    @Override
+    public void showHint(Position p) {
+        HashSet<Position> positions = model.groupColor(p);
+        Timeline flash = new Timeline(
+                new KeyFrame(Duration.seconds(0), e -> setStroke(positions, Color.WHITE)),
+                new KeyFrame(Duration.seconds(1.5), e -> setStroke(positions, null))
+        );
+        flash.play();
+    }
+
+    /**
+     * Sets the outline of the rectangles at given positions.
+     *
+     * @param positions the positions of the rectangles.
+     * @param stroke    the color of the outline, <code>null</code> for no outline.
+     */
+    private void setStroke(HashSet<Position> positions, Paint stroke) {
+        for (Position p : positions) {
+            recArray[p.getRow()][p.getCol()].setStroke(stroke);
+            recArray[p.getRow()][p.getCol()].setStrokeWidth(2);
+        }
+    }
+
     /**
-     * Utility handler to change the opacity of a visited rectangle on mouse event.
+     * Utility handler to highlight the group of a visited rectangle on mouse event, by lowering its opacity.
      *
-     * @param rec     the rectangle.
-     * @param opacity the new opacity to set.
+     * @param row the row of the rectangle.
+     * @param col the column of the rectangle.
      * @return the mouse event handler.
      */
-    private EventHandler<MouseEvent> makeMouseEvent(Rectangle rec, double opacity) {
+    private EventHandler<MouseEvent> makeEnterEvent(int row, int col) {
         return event -> {
-            rec.setOpacity(opacity);
-            int row = GridPane.getRowIndex(rec);
-            int col = GridPane.getColumnIndex(rec);
-            HashSet<Position> positions = model.groupColor(new Position(row, col));
-            for (Position p : positions) {
-                recArray[p.getRow()][p.getCol()].setOpacity(opacity);
-            }
+            clearHover();
+            groups.forEach(row, col, cell -> {
+                Rectangle r = recArray[groups.toRow(cell)][groups.toCol(cell)];
+                r.setOpacity(.6);
+                hovered.add(r);
+            });
         };
     }
 
+    /**
+     * Utility handler to restore the opacity of the highlighted group when the mouse leaves a rectangle.
+     *
+     * @return the mouse event handler.
+     */
+    private EventHandler<MouseEvent> makeExitEvent() {
+        return event -> clearHover();
+    }
+
+    /**
+     * Restores the opacity of the rectangles highlighted last, which are the group as it was when it was hovered.
+     */
+    private void clearHover() {
+        for (Rectangle r : hovered) {
+            r.setOpacity(1);
+        }
+        hovered.clear();
+    }
+
     /**
      * Utility handler to color a rectangle when it's clicked. Used when a move can't be played
      * and inform the user.
      *
      * @param rec the rectangle.
+     * @param row the row of the rectangle.
+     * @param col the column of the rectangle.
      * @return the mouse event handler.
      */
-    private EventHandler<MouseEvent> makeClickEvent(Rectangle rec) {
+    private EventHandler<MouseEvent> makeClickEvent(Rectangle rec, int row, int col) {
         return event -> {
-            int row = GridPane.getRowIndex(rec);
-            int col = GridPane.getColumnIndex(rec);
             Position p = new Position(row, col);
-            HashSet<Position> positions = model.groupColor(p);
-            if (positions.size() == 0) {
+            if (groups.groupSize(row, col) < 2) {
                 Paint c = rec.getFill();
                 Timeline flash = new Timeline(
                         new KeyFrame(Duration.seconds(0), e -> rec.setFill(Color.RED)),
@@ -143,7 +206,7 @@ public class GameLayer extends GridPane implements Observer {
     }
 
     @Override
-    public void update() {
-        refresh();
+    public Region getRegion() {
+        return this;
     }
 }
@@ -0,0 +1,128 @@
+package g55803.samegame.fx.fxview;
+
+import g55803.samegame.model.Facade;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Provides the groups of the whole board, computed once per version of the board and shared by every hover and click
+ * until the next change. The cells of each group are stored next to each other, so going through a group only costs
+ * its size, however large the board is.
+ *
+ * @author Nathan Furnal
+ */
+final class GroupCache {
+    private final Facade model;
+    private long version;
+    private int nRows;
+    private int[] ids;
+    private int[] offsets;
+    private int[] members;
+
+    /**
+     * Creates the cache, filled on first use.
+     *
+     * @param model the model.
+     */
+    GroupCache(Facade model) {
+        this.model = model;
+    }
+
+    /**
+     * Gets the identifier of the group of a cell, two cells are in the same group if and only if they have the same
+     * identifier.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the identifier of the group or -1 if there is no tile.
+     */
+    int groupId(int row, int col) {
+        ensure();
+        return ids[col * nRows + row];
+    }
+
+    /**
+     * Gets the size of the group of a cell.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the number of tiles in the group, 1 for a lone tile and 0 if there is no tile.
+     */
+    int groupSize(int row, int col) {
+        int id = groupId(row, col);
+        return id < 0 ? 0 : offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Goes through the cells of the group of a cell, the cell itself included.
+     *
+     * @param row    the row of the cell.
+     * @param col    the column of the cell.
+     * @param action the action to run on the index of every cell of the group, see {@link #toRow(int)} and
+     *               {@link #toCol(int)}.
+     */
+    void forEach(int row, int col, IntConsumer action) {
+        int id = groupId(row, col);
+        if (id < 0) {
+            return;
+        }
+        for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+            action.accept(members[k]);
+        }
+    }
+
+    /**
+     * Gets the row of a cell given by its index.
+     *
+     * @param cell the index of the cell.
+     * @return the row of the cell.
+     */
+    int toRow(int cell) {
+        return cell % nRows;
+    }
+
+    /**
+     * Gets the column of a cell given by its index.
+     *
+     * @param cell the index of the cell.
+     * @return the column of the cell.
+     */
+    int toCol(int cell) {
+        return cell / nRows;
+    }
+
+    /**
+     * Brings the groups up to date with the board. The cells are sorted by group with a counting sort, in a single
+     * pass over the board.
+     */
+    private void ensure() {
+        if (ids != null && version == model.getVersion()) {
+            return;
+        }
+        version = model.getVersion();
+        nRows = model.getNRows();
+        ids = model.getGroupIds();
+        if (offsets == null || offsets.length != ids.length + 1) {
+            offsets = new int[ids.length + 1];
+            members = new int[ids.length];
+        } else {
+            Arrays.fill(offsets, 0);
+        }
+        for (int id : ids) {
+            if (id >= 0) {
+                offsets[id + 1]++;
+            }
+        }
+        for (int id = 0; id < ids.length; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+        int[] next = offsets.clone();
+        for (int cell = 0; cell < ids.length; cell++) {
+            int id = ids[cell];
+            if (id >= 0) {
+                members[next[id]++] = cell;
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package g55803.samegame.fx.fxview;
 
 import g55803.samegame.model.Facade;
-import g55803.samegame.model.Position;
 import javafx.geometry.Pos;
 import javafx.scene.layout.HBox;
 import javafx.scene.text.Font;
@@ -18,11 +17,14 @@ public class ScoreBox extends HBox {
     private final Text score;
     private final Text nbRemaining;
     private final Text lastMoveScore;
+    private final Text maxScore;
+    private final Text seed;
     private final Facade model;
-    private int tempScore;
+    private long tempScore;
 
     /**
-     * Creates a view of the current, the last move's score and the number of remaining tiles.
+     * Creates a view of the current, the last move's score, the number of remaining tiles, the best score that can
+     * still be reached and the seed of the board.
      *
      * @param model the model since calls are required to update the score.
      */
@@ -31,14 +33,18 @@ public class ScoreBox extends HBox {
         this.tempScore = model.getScore();
         this.score = new Text("Current score: " + tempScore);
         this.lastMoveScore = new Text("Last move score: " + tempScore);
-        this.nbRemaining = new Text("Remaining tiles: " + model.getNRows() * model.getNCols());
+        this.nbRemaining = new Text("Remaining tiles: " + model.getRemainingTiles());
+        this.maxScore = new Text(maxScoreText());
+        this.seed = new Text("Seed: " + model.getSeed());
         Font retroFont = Font.loadFont(
                 Objects.requireNonNull(getClass().getResource("/fonts/retro-font.ttf")).toString(),
                 11);
         score.setFont(retroFont);
         lastMoveScore.setFont(retroFont);
         nbRemaining.setFont(retroFont);
-        this.getChildren().addAll(score, lastMoveScore, nbRemaining);
+        maxScore.setFont(retroFont);
+        seed.setFont(retroFont);
+        this.getChildren().addAll(score, lastMoveScore, nbRemaining, maxScore, seed);
         this.setAlignment(Pos.BOTTOM_CENTER);
     }
 
@@ -47,24 +53,19 @@ public class ScoreBox extends HBox {
      */
     public void refresh() {
         score.setText("Current score: " + model.getScore());
-        nbRemaining.setText("Remaining tiles: " + getNbRemainingTiles());
+        nbRemaining.setText("Remaining tiles: " + model.getRemainingTiles());
+        maxScore.setText(maxScoreText());
         lastMoveScore.setText("Last move score: " + Math.abs(model.getScore() - tempScore));
         tempScore = model.getScore();
+        seed.setText("Seed: " + model.getSeed());
     }
 
     /**
-     * Gets the number of in-game remaining tiles.
+     * Makes the text of the best score that can still be reached, telling when the board can't be cleared anymore.
      *
-     * @return the number of remaining tiles.
+     * @return the text of the best reachable score.
      */
-    int getNbRemainingTiles() {
-        int count = 0;
-        for (int i = 0; i < model.getNRows(); i++) {
-            for (int j = 0; j < model.getNCols(); j++) {
-                if (model.getTile(new Position(i, j)) != null)
-                    count++;
-            }
-        }
-        return count;
+    private String maxScoreText() {
+        return "Max score: " + model.getScoreUpperBound() + (model.isDeadEnd() ? " (can't clear)" : "");
     }
 }
@@ -15,6 +15,7 @@ import javafx.util.Duration;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.stream.IntStream;
 
 /**
@@ -23,6 +24,10 @@ import java.util.stream.IntStream;
  * @author Nathan Furnal
  */
 public class StartLayer extends VBox {
+    private static final int MAX_SIZE = 19;
+    private static final int CANVAS_MAX_SIZE = 64;
+    private static final String TILES = "Tiles";
+    private static final String CANVAS = "Canvas";
     private final Font retroFont = Font.loadFont(
             Objects.requireNonNull(getClass().getResource("/fonts/retro-font.ttf")).toString(),
             11);
@@ -30,6 +35,10 @@ public class StartLayer extends VBox {
     private TextField rowField;
     private TextField colField;
     private ChoiceBox<Integer> colorChoice;
+    private TextField seedField;
+    private ChoiceBox<String> boardChoice;
+    private Label rowLbl;
+    private Label colLbl;
     private Button startButton;
 
     /**
@@ -47,6 +56,8 @@ public class StartLayer extends VBox {
         setupRowField();
         setupColFiled();
         setupColorsChoice();
+        setupSeedField();
+        setupBoardChoice();
         setupButton();
     }
 
@@ -72,7 +83,7 @@ public class StartLayer extends VBox {
      */
     private void setupRowField() {
         HBox box = new HBox();
-        Label rowLbl = new Label("Number of rows (2 -> 19): ");
+        this.rowLbl = new Label();
         rowLbl.setFont(retroFont);
         rowLbl.setPadding(new Insets(10));
         this.rowField = new TextField("12");
@@ -87,7 +98,7 @@ public class StartLayer extends VBox {
      */
     private void setupColFiled() {
         HBox box = new HBox();
-        Label colLbl = new Label("Number of columns (2 -> 19): ");
+        this.colLbl = new Label();
         colLbl.setFont(retroFont);
         colLbl.setPadding(new Insets(10));
         this.colField = new TextField("16");
@@ -114,6 +125,56 @@ public class StartLayer extends VBox {
         box.setAlignment(Pos.CENTER_LEFT);
     }
 
+    /**
+     * Sets up the seed text field, left empty for a random board.
+     */
+    private void setupSeedField() {
+        HBox box = new HBox();
+        Label seedLbl = new Label("Seed (empty for random): ");
+        seedLbl.setFont(retroFont);
+        seedLbl.setPadding(new Insets(10));
+        this.seedField = new TextField();
+        seedField.setPrefColumnCount(12);
+        box.getChildren().addAll(seedLbl, seedField);
+        this.getChildren().add(box);
+        box.setAlignment(Pos.CENTER_LEFT);
+    }
+
+    /**
+     * Sets up the choice of the board renderer: one node per tile, or a single canvas which allows larger boards.
+     */
+    private void setupBoardChoice() {
+        HBox box = new HBox();
+        Label boardLbl = new Label("Board: ");
+        boardLbl.setFont(retroFont);
+        boardLbl.setPadding(new Insets(10));
+        this.boardChoice = new ChoiceBox<>();
+        boardChoice.getItems().addAll(TILES, CANVAS);
+        boardChoice.setOnAction(e -> setupSizeLabels());
+        boardChoice.setValue(TILES);
+        setupSizeLabels();
+        box.getChildren().addAll(boardLbl, boardChoice);
+        this.getChildren().add(box);
+        box.setAlignment(Pos.CENTER_LEFT);
+    }
+
+    /**
+     * Sets up the labels of the row and column fields with the largest size the chosen board can render.
+     */
+    private void setupSizeLabels() {
+        rowLbl.setText("Number of rows (2 -> " + maxSize() + "): ");
+        colLbl.setText("Number of columns (2 -> " + maxSize() + "): ");
+    }
+
+    /**
+     * Gets the largest number of rows or columns the chosen board can render.
+     *
+     * @return the largest size.
+     */
+    private int maxSize() {
+        return isCanvas() ? CANVAS_MAX_SIZE : MAX_SIZE;
+    }
+
     /**
      * Sets up the starting button.
      */
@@ -159,20 +220,13 @@ public class StartLayer extends VBox {
             String inp = input.getText().trim();
             try {
                 int res = Integer.parseInt(inp);
-                if (res < 2 || res > 19) { // Values required in the model
+                if (res < 2 || res > maxSize()) { // Values the board can render
                     throw new IllegalArgumentException("Input not in bounds."); // Sneaky
                 } else {
                     return true;
                 }
             } catch (IllegalArgumentException e) {
-                Border before = input.getBorder();
-                Border bad = new Border(new BorderStroke(javafx.scene.paint.Color.RED,
-                        BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderStroke.MEDIUM));
-                Timeline flash = new Timeline(
-                        new KeyFrame(Duration.seconds(0), event -> input.setBorder(bad)),
-                        new KeyFrame(Duration.seconds(1.), event -> input.setBorder(before))
-                );
-                flash.play();
+                flash(input);
                 return false;
             }
         }
@@ -180,14 +234,51 @@ public class StartLayer extends VBox {
     }
 
     /**
-     * Valides the row and column fields.
+     * Validates the seed field, which is either empty or an integer. It has the side effect of making the field blink
+     * red when the input is incorrect.
      *
-     * @return True if both are valid inputs and false otherwise.
+     * @return true if the seed is valid and false otherwise.
+     */
+    private boolean isValidSeed() {
+        String inp = seedField.getText() == null ? "" : seedField.getText().trim();
+        if (inp.isEmpty()) {
+            return true;
+        }
+        try {
+            Long.parseLong(inp);
+            return true;
+        } catch (NumberFormatException e) {
+            flash(seedField);
+            return false;
+        }
+    }
+
+    /**
+     * Makes the border of an input field blink red to inform the user the input is incorrect.
+     *
+     * @param input the text input.
+     */
+    private void flash(TextField input) {
+        Border before = input.getBorder();
+        Border bad = new Border(new BorderStroke(javafx.scene.paint.Color.RED,
+                BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderStroke.MEDIUM));
+        Timeline flash = new Timeline(
+                new KeyFrame(Duration.seconds(0), event -> input.setBorder(bad)),
+                new KeyFrame(Duration.seconds(1.), event -> input.setBorder(before))
+        );
+        flash.play();
+    }
+
+    /**
+     * Valides the row, column and seed fields.
+     *
+     * @return True if all are valid inputs and false otherwise.
      */
     boolean validate() {
-        // Get both functions to trigger when content is not validated
+        // Get all functions to trigger when content is not validated
         boolean check = isValidInput(rowField);
-        return isValidInput(colField) && check;
+        check = isValidInput(colField) && check;
+        return isValidSeed() && check;
     }
 
     /**
@@ -216,4 +307,23 @@ public class StartLayer extends VBox {
     int getColorsValue() {
         return colorChoice.getValue();
     }
+
+    /**
+     * Gets the seed from the seed text field.
+     *
+     * @return the seed, or an empty value for a random board.
+     */
+    OptionalLong getSeedValue() {
+        String inp = seedField.getText() == null ? "" : seedField.getText().trim();
+        return inp.isEmpty() ? OptionalLong.empty() : OptionalLong.of(Long.parseLong(inp));
+    }
+
+    /**
+     * Checks if the board should be drawn on a canvas rather than with one node per tile.
+     *
+     * @return true if the canvas board was chosen and false otherwise.
+     */
+    boolean isCanvas() {
+        return CANVAS.equals(boardChoice.getValue());
+    }
 }
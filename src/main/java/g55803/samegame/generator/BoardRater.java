@@ -0,0 +1,88 @@
+package g55803.samegame.generator;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.solver.RolloutPolicy;
+
+import java.util.SplittableRandom;
+
+/**
+ * Provides the rating of boards by play-outs. Every play-out plays a copy of the board until no move is left, moves
+ * being picked by a rollout policy. The random generator of the play-outs is seeded from the seed of the board, so a
+ * board always gets the same rating.
+ *
+ * @author Nathan Furnal
+ */
+public class BoardRater {
+    /**
+     * The largest group size counted on its own in a rating.
+     */
+    public static final int MAX_GROUP_SIZE = 16;
+    private final int rollouts;
+    private final RolloutPolicy policy;
+
+    /**
+     * Creates a rater.
+     *
+     * @param rollouts the number of play-outs per board.
+     * @param policy   the policy picking the moves of the play-outs.
+     */
+    public BoardRater(int rollouts, RolloutPolicy policy) {
+        if (rollouts < 1) {
+            throw new IllegalArgumentException("There should be at least one play-out, received : " + rollouts);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("The rollout policy can't be null.");
+        }
+        this.rollouts = rollouts;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a rater with random play-outs.
+     *
+     * @param rollouts the number of play-outs per board.
+     */
+    public BoardRater(int rollouts) {
+        this(rollouts, RolloutPolicy.random());
+    }
+
+    /**
+     * Rates a board. The board itself is left untouched.
+     *
+     * @param board the board to rate.
+     * @return the rating of the board.
+     */
+    public Rating rate(Field board) {
+        if (board == null) {
+            throw new IllegalArgumentException("Can't rate a null board.");
+        }
+        int[] moves = new int[board.getNCells() / 2 + 1];
+        int[] groupSizes = new int[MAX_GROUP_SIZE + 1];
+        int n = board.legalMoves(moves);
+        int grouped = 0;
+        for (int k = 0; k < n; k++) {
+            int size = board.groupSize(moves[k]);
+            groupSizes[Math.min(size, MAX_GROUP_SIZE)]++;
+            grouped += size;
+        }
+        groupSizes[1] = board.getRemainingTiles() - grouped;
+        SplittableRandom random = new SplittableRandom(board.getSeed()).split();
+        long totalScore = 0;
+        int cleared = 0;
+        long left = 0;
+        for (int r = 0; r < rollouts; r++) {
+            Field f = new Field(board);
+            while ((n = f.legalMoves(moves)) > 0) {
+                f.play(policy.choose(f, moves, n, random));
+            }
+            totalScore += f.getScore();
+            left += f.getRemainingTiles();
+            if (f.getRemainingTiles() == 0) {
+                cleared++;
+            }
+        }
+        int tiles = Math.max(1, board.getRemainingTiles());
+        return new Rating(board.getSeed(), (double) totalScore / rollouts, (double) cleared / rollouts,
+                (double) left / rollouts / tiles, groupSizes);
+    }
+}
@@ -0,0 +1,23 @@
+package g55803.samegame.generator;
+
+import g55803.samegame.model.Field;
+
+import java.io.IOException;
+
+/**
+ * Provides the destination of the boards kept by a {@link Generator}, such as a corpus file or the standard output.
+ *
+ * @author Nathan Furnal
+ */
+@FunctionalInterface
+public interface BoardSink {
+
+    /**
+     * Takes a board kept by the generator. Boards are given one at a time, from a single thread.
+     *
+     * @param board  the board.
+     * @param rating the rating of the board.
+     * @throws IOException if the board can't be written.
+     */
+    void accept(Field board, Rating rating) throws IOException;
+}
@@ -0,0 +1,187 @@
+package g55803.samegame.generator;
+
+import g55803.samegame.model.Field;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Provides a generator of rated boards. Boards are drawn from a range of seeds, which is split between the threads of
+ * a fork-join pool, and rated by a {@link BoardRater}. The boards whose rating passes a filter, typically a difficulty
+ * band, are handed to a sink from the calling thread.
+ * <p>
+ * Kept boards go through a bounded queue: when the sink is slower than the raters, the raters wait for room in the
+ * queue, so memory stays bounded whatever the number of boards. Boards reach the sink in no particular order, each of
+ * them keeps its seed so a generated set can always be reproduced.
+ *
+ * @author Nathan Furnal
+ */
+public class Generator {
+    private static final int BATCH = 64;
+    private static final long POLL_MILLIS = 50;
+    private final int nRows;
+    private final int nCols;
+    private final int nColors;
+    private final BoardRater rater;
+    private final Predicate<Rating> filter;
+    private final int threads;
+    private final int capacity;
+
+    /**
+     * Creates a generator.
+     *
+     * @param nRows    the number of rows of the boards.
+     * @param nCols    the number of columns of the boards.
+     * @param nColors  the number of colors of the boards.
+     * @param rater    the rater of the boards.
+     * @param filter   the ratings of the boards to keep.
+     * @param threads  the number of threads rating boards.
+     * @param capacity the number of kept boards that can wait for the sink.
+     */
+    public Generator(int nRows, int nCols, int nColors, BoardRater rater, Predicate<Rating> filter, int threads,
+                     int capacity) {
+        if (rater == null || filter == null) {
+            throw new IllegalArgumentException("The rater and the filter of a generator can't be null.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("There should be at least one thread, received : " + threads);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The queue should hold at least one board, received : " + capacity);
+        }
+        // Checks the dimensions once rather than on every board.
+        Field.fromSeed(nRows, nCols, nColors, 0L);
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.nColors = nColors;
+        this.rater = rater;
+        this.filter = filter;
+        this.threads = threads;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets a filter keeping the boards whose difficulty lies in a band, see {@link Rating#getDifficulty()}.
+     *
+     * @param min the lowest difficulty kept.
+     * @param max the highest difficulty kept.
+     * @return the filter.
+     */
+    public static Predicate<Rating> band(double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("The band should go from its lowest to its highest difficulty, " +
+                    "received : " + min + ", " + max);
+        }
+        return rating -> rating.getDifficulty() >= min && rating.getDifficulty() <= max;
+    }
+
+    /**
+     * Generates the boards of consecutive seeds, rates them and hands the kept ones to a sink.
+     *
+     * @param firstSeed the seed of the first board.
+     * @param count     the number of boards to rate.
+     * @param sink      the destination of the kept boards.
+     * @return the number of boards kept.
+     * @throws IOException if the sink fails, in which case the generation is stopped.
+     */
+    public long generate(long firstSeed, long count, BoardSink sink) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of boards can't be negative, received : " + count);
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("The sink can't be null.");
+        }
+        BlockingQueue<Rated> queue = new ArrayBlockingQueue<>(capacity);
+        Batch root = new Batch(firstSeed, count, queue);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long kept = 0;
+        try {
+            ForkJoinTask<Void> task = pool.submit(root);
+            while (true) {
+                Rated r = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (r != null) {
+                    sink.accept(r.board, r.rating);
+                    kept++;
+                } else if (task.isDone() && queue.isEmpty()) {
+                    break;
+                }
+            }
+            task.join();
+            return kept;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The generation was interrupted.");
+        } finally {
+            root.stopped = true;
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The rating of a range of seeds, split in halves until it is small enough.
+     */
+    @SuppressWarnings("serial")
+    private final class Batch extends RecursiveAction {
+        private final long first;
+        private final long count;
+        private final BlockingQueue<Rated> queue;
+        private final Batch root;
+        private volatile boolean stopped;
+
+        Batch(long first, long count, BlockingQueue<Rated> queue) {
+            this(first, count, queue, null);
+        }
+
+        private Batch(long first, long count, BlockingQueue<Rated> queue, Batch root) {
+            this.first = first;
+            this.count = count;
+            this.queue = queue;
+            this.root = root == null ? this : root;
+        }
+
+        @Override
+        protected void compute() {
+            if (count > BATCH) {
+                long half = count / 2;
+                invokeAll(new Batch(first, half, queue, root), new Batch(first + half, count - half, queue, root));
+                return;
+            }
+            try {
+                for (long k = 0; k < count && !root.stopped; k++) {
+                    Field board = Field.fromSeed(nRows, nCols, nColors, first + k);
+                    Rating rating = rater.rate(board);
+                    if (filter.test(rating)) {
+                        Rated r = new Rated(board, rating);
+                        while (!queue.offer(r, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                            if (root.stopped) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A kept board and its rating.
+     */
+    private static final class Rated {
+        private final Field board;
+        private final Rating rating;
+
+        Rated(Field board, Rating rating) {
+            this.board = board;
+            this.rating = rating;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package g55803.samegame.generator;
+
+import g55803.samegame.model.CorpusWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+
+/**
+ * Generates boards in a difficulty band, without any user interface. Meant to build sets of boards such as daily
+ * challenges. Kept boards are written to a corpus file when one is given, otherwise their ratings are printed, one
+ * line per board: seed, mean score, clear rate, difficulty and the number of groups of each size.
+ * <p>
+ * Usage: <code>Main rows cols colors firstSeed boards minDifficulty maxDifficulty [rollouts] [corpus]</code>
+ *
+ * @author Nathan Furnal
+ */
+public class Main {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 7) {
+            System.out.println("Usage: Main rows cols colors firstSeed boards minDifficulty maxDifficulty " +
+                    "[rollouts] [corpus]");
+            System.exit(1);
+        }
+        int nRows = Integer.parseInt(args[0]);
+        int nCols = Integer.parseInt(args[1]);
+        int nColors = Integer.parseInt(args[2]);
+        long firstSeed = Long.parseLong(args[3]);
+        long boards = Long.parseLong(args[4]);
+        double min = Double.parseDouble(args[5]);
+        double max = Double.parseDouble(args[6]);
+        int rollouts = args.length > 7 ? Integer.parseInt(args[7]) : 16;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Generator generator = new Generator(nRows, nCols, nColors, new BoardRater(rollouts),
+                Generator.band(min, max), threads, 1024);
+        long begin = System.nanoTime();
+        long kept;
+        if (args.length > 8) {
+            try (CorpusWriter corpus = new CorpusWriter(Paths.get(args[8]), nRows, nCols, nColors)) {
+                kept = generator.generate(firstSeed, boards, (board, rating) -> corpus.write(board));
+            }
+        } else {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            kept = generator.generate(firstSeed, boards, (board, rating) -> out.write(rating + "\n"));
+            out.flush();
+        }
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        System.err.println(boards + " boards rated in " + millis + " ms, " + kept + " kept");
+    }
+}
@@ -0,0 +1,105 @@
+package g55803.samegame.generator;
+
+import java.util.Locale;
+
+/**
+ * Provides the rating of a board, measured by random play-outs from it and by the groups it starts with.
+ *
+ * @author Nathan Furnal
+ */
+public final class Rating {
+    private final long seed;
+    private final double meanScore;
+    private final double clearRate;
+    private final double difficulty;
+    private final int[] groupSizes;
+
+    /**
+     * Creates a rating.
+     *
+     * @param seed       the seed of the board.
+     * @param meanScore  the mean final score of the play-outs.
+     * @param clearRate  the share of play-outs that cleared the board.
+     * @param difficulty the mean share of tiles left at the end of the play-outs.
+     * @param groupSizes the number of groups of each size on the board, see {@link #getGroupCount(int)}.
+     */
+    Rating(long seed, double meanScore, double clearRate, double difficulty, int[] groupSizes) {
+        this.seed = seed;
+        this.meanScore = meanScore;
+        this.clearRate = clearRate;
+        this.difficulty = difficulty;
+        this.groupSizes = groupSizes;
+    }
+
+    /**
+     * Gets the seed of the rated board.
+     *
+     * @return the seed of the board.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the mean final score of the play-outs.
+     *
+     * @return the mean score.
+     */
+    public double getMeanScore() {
+        return meanScore;
+    }
+
+    /**
+     * Gets the share of play-outs that cleared the board.
+     *
+     * @return the clear rate, between 0 and 1.
+     */
+    public double getClearRate() {
+        return clearRate;
+    }
+
+    /**
+     * Gets the difficulty of the board, the mean share of its tiles left at the end of the play-outs. A board that is
+     * always cleared has a difficulty of 0 and a board without any move a difficulty of 1.
+     *
+     * @return the difficulty, between 0 and 1.
+     */
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Gets the number of groups of a given size on the board before any move. The last size counts every larger group
+     * as well.
+     *
+     * @param size the size of the groups, from 1 for lone tiles to {@link #getMaxGroupSize()}.
+     * @return the number of groups of that size.
+     */
+    public int getGroupCount(int size) {
+        if (size < 1 || size > getMaxGroupSize()) {
+            throw new IllegalArgumentException("The size should be between 1 and " + getMaxGroupSize() +
+                    ", received : " + size);
+        }
+        return groupSizes[size];
+    }
+
+    /**
+     * Gets the largest size counted on its own by {@link #getGroupCount(int)}.
+     *
+     * @return the largest group size.
+     */
+    public int getMaxGroupSize() {
+        return groupSizes.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(seed).append(' ')
+                .append(String.format(Locale.ROOT, "%.1f %.3f %.3f", meanScore, clearRate, difficulty));
+        for (int size = 1; size < groupSizes.length; size++) {
+            s.append(' ').append(groupSizes[size]);
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,205 @@
+package g55803.samegame.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Provides a read-only corpus of boards sharing the same dimensions and colors, memory-mapped from a file written by
+ * {@link CorpusWriter}. Opening a corpus only reads its header and maps the file, boards are read from the page cache
+ * when they are asked for, see {@link Field#fromCorpus(Corpus, long)}, so a corpus of millions of boards neither takes
+ * time to load nor room on the heap.
+ * <p>
+ * The file starts with a header of {@value #HEADER} bytes: the magic bytes <code>SGC</code>, the version of the
+ * format, then the number of rows, columns and colors as ints and the number of boards as a long, big-endian. Boards
+ * follow as fixed-size records: the seed of the board as a long, then one byte per cell in the order of the field,
+ * 0 for an empty cell and the ordinal of the color plus one otherwise. Since a single mapping can't exceed 2 GiB, the
+ * file is mapped in chunks holding a whole number of records.
+ * <p>
+ * A corpus can be read by any number of threads at once.
+ *
+ * @author Nathan Furnal
+ */
+public final class Corpus implements Closeable {
+    static final byte[] MAGIC = {'S', 'G', 'C'};
+    static final int VERSION = 1;
+    static final int HEADER = 32;
+    static final int COUNT_OFFSET = 16;
+    private static final int CHUNK_BYTES = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final int nRows;
+    private final int nCols;
+    private final int nColors;
+    private final long size;
+    private final int recordSize;
+    private final int perChunk;
+    private final MappedByteBuffer[] chunks;
+
+    private Corpus(FileChannel channel, int nRows, int nCols, int nColors, long size, int chunkBytes)
+            throws IOException {
+        this.channel = channel;
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.nColors = nColors;
+        this.size = size;
+        this.recordSize = recordSize(nRows * nCols);
+        if (chunkBytes < recordSize) {
+            throw new IOException("A record of " + recordSize + " bytes can't be mapped.");
+        }
+        this.perChunk = chunkBytes / recordSize;
+        this.chunks = new MappedByteBuffer[(int) ((size + perChunk - 1) / perChunk)];
+        for (int k = 0; k < chunks.length; k++) {
+            long first = (long) k * perChunk;
+            long length = Math.min(perChunk, size - first) * recordSize;
+            chunks[k] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * recordSize, length);
+        }
+    }
+
+    /**
+     * Opens a corpus file.
+     *
+     * @param path the path of the file.
+     * @return the corpus.
+     * @throws IOException if the file can't be read or is not a complete corpus.
+     */
+    public static Corpus open(Path path) throws IOException {
+        return open(path, CHUNK_BYTES);
+    }
+
+    /**
+     * Opens a corpus file, mapped in chunks of at most a given number of bytes.
+     *
+     * @param path       the path of the file.
+     * @param chunkBytes the largest number of bytes mapped at once.
+     * @return the corpus.
+     * @throws IOException if the file can't be read or is not a complete corpus.
+     */
+    static Corpus open(Path path, int chunkBytes) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("The path of a corpus can't be null.");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Reads until the header is full or the file is over.
+            }
+            if (header.hasRemaining() || header.get(0) != MAGIC[0] || header.get(1) != MAGIC[1]
+                    || header.get(2) != MAGIC[2]) {
+                throw new IOException("This is not a corpus file : " + path);
+            }
+            if (header.get(3) != VERSION) {
+                throw new IOException("Unsupported corpus version : " + header.get(3));
+            }
+            int nRows = header.getInt(4);
+            int nCols = header.getInt(8);
+            int nColors = header.getInt(12);
+            long size = header.getLong(COUNT_OFFSET);
+            if (nRows < 2 || nCols < 2 || (long) nRows * nCols > Field.MAX_CELLS - Long.BYTES
+                    || nColors < 2 || nColors > Color.values().length || size < 0) {
+                throw new IOException("The header of the corpus is not valid : " + path);
+            }
+            // Divides rather than multiplies, a forged count could overflow the size of the records.
+            if (size > (channel.size() - HEADER) / recordSize(nRows * nCols)) {
+                throw new IOException("The corpus is truncated : " + path);
+            }
+            return new Corpus(channel, nRows, nCols, nColors, size, chunkBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of bytes of a record.
+     *
+     * @param nCells the number of cells of a board.
+     * @return the size of a record.
+     */
+    static int recordSize(int nCells) {
+        return Long.BYTES + nCells;
+    }
+
+    /**
+     * Gets the number of boards in the corpus.
+     *
+     * @return the number of boards.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of rows of the boards.
+     *
+     * @return the number of rows.
+     */
+    public int getNRows() {
+        return nRows;
+    }
+
+    /**
+     * Gets the number of columns of the boards.
+     *
+     * @return the number of columns.
+     */
+    public int getNCols() {
+        return nCols;
+    }
+
+    /**
+     * Gets the number of colors of the boards.
+     *
+     * @return the number of colors.
+     */
+    public int getNColors() {
+        return nColors;
+    }
+
+    /**
+     * Gets the seed a board was drawn from.
+     *
+     * @param index the index of the board.
+     * @return the seed of the board.
+     */
+    public long getSeed(long index) {
+        checkIndex(index);
+        return chunks[(int) (index / perChunk)].getLong((int) (index % perChunk) * recordSize);
+    }
+
+    /**
+     * Copies the cells of a board.
+     *
+     * @param index the index of the board.
+     * @param cells the array to copy the cells into, as long as a board.
+     * @return the seed of the board.
+     */
+    long read(long index, byte[] cells) {
+        checkIndex(index);
+        MappedByteBuffer chunk = chunks[(int) (index / perChunk)];
+        int offset = (int) (index % perChunk) * recordSize;
+        chunk.get(offset + Long.BYTES, cells, 0, cells.length);
+        return chunk.getLong(offset);
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("There are " + size + " boards in the corpus, received : " + index);
+        }
+    }
+
+    /**
+     * Closes the file. The mapping itself is released once the corpus is no longer reachable.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
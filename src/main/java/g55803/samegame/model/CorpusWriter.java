@@ -0,0 +1,110 @@
+package g55803.samegame.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Provides the writer of a corpus file, see {@link Corpus} for the format. Boards are appended one after the other and
+ * the number of boards is written in the header when the writer is closed, so a corpus is only complete once closed.
+ *
+ * @author Nathan Furnal
+ */
+public final class CorpusWriter implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final int nRows;
+    private final int nCols;
+    private final int nColors;
+    private final ByteBuffer buffer;
+    private long size;
+
+    /**
+     * Creates a corpus file, replacing any file at the same path.
+     *
+     * @param path    the path of the file.
+     * @param nRows   the number of rows of the boards.
+     * @param nCols   the number of columns of the boards.
+     * @param nColors the number of colors of the boards.
+     * @throws IOException if the file can't be written.
+     */
+    public CorpusWriter(Path path, int nRows, int nCols, int nColors) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("The path of a corpus can't be null.");
+        }
+        if (nRows < 2 || nCols < 2 || (long) nRows * nCols > Field.MAX_CELLS) {
+            throw new IllegalArgumentException("The boards of a corpus should have between 2 rows and columns and " +
+                    Field.MAX_CELLS + " tiles, received : nRows : " + nRows + ", nCols : " + nCols);
+        }
+        if (nColors < 2 || nColors > Color.values().length) {
+            throw new IllegalArgumentException("Please define between 2 and " + Color.values().length +
+                    " colors, received : " + nColors);
+        }
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.nColors = nColors;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_BYTES, Corpus.recordSize(nRows * nCols)));
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.put(Corpus.MAGIC).put((byte) Corpus.VERSION).putInt(nRows).putInt(nCols).putInt(nColors)
+                .putLong(0L).putLong(0L);
+    }
+
+    /**
+     * Appends a board to the corpus. Only its tiles and its seed are kept, not its score.
+     *
+     * @param f the board, with the same dimensions and colors as the corpus.
+     * @throws IOException if the file can't be written.
+     */
+    public void write(Field f) throws IOException {
+        if (f == null || f.getNRows() != nRows || f.getNCols() != nCols || f.getNColors() != nColors) {
+            throw new IllegalArgumentException("The boards of this corpus have " + nRows + " rows, " + nCols +
+                    " columns and " + nColors + " colors.");
+        }
+        byte[] cells = f.cells();
+        if (buffer.remaining() < Corpus.recordSize(cells.length)) {
+            drain();
+        }
+        buffer.putLong(f.getSeed()).put(cells);
+        size++;
+    }
+
+    /**
+     * Gets the number of boards written so far.
+     *
+     * @return the number of boards.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the buffered boards and the number of boards, then closes the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).putLong(0, size);
+            while (count.hasRemaining()) {
+                channel.write(count, Corpus.COUNT_OFFSET + count.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
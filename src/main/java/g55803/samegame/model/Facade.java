@@ -3,24 +3,35 @@ package g55803.samegame.model;
 import g55803.samegame.model.commands.Command;
 import g55803.samegame.model.commands.CommandManager;
 import g55803.samegame.model.commands.PlayCommand;
+import g55803.samegame.model.record.GameRecord;
+import g55803.samegame.utils.EventBus;
 import g55803.samegame.utils.Observable;
 import g55803.samegame.utils.Observer;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Provides a facade for the Field object which is the underlying model of the game. The facade exposes public methods
  * to be used in other packages such as views and controllers while staying agnostic on how they are used.
+ * <p>
+ * Every move played, undone or redone publishes a {@link GameEvent} on an asynchronous {@link EventBus}, and so does
+ * every new or loaded board with a reset event: the change returns as soon as the event is queued and observers are
+ * updated on their own executor, see {@link #getEvents()}.
+ * The game itself must be played from one thread at a time, while observers can subscribe and unsubscribe from any
+ * thread.
  *
  * @author Nathan Furnal
  */
-public class Facade implements Observable {
-    private final List<Observer> observers;
+public class Facade implements Observable<GameEvent> {
+    private final EventBus<GameEvent> events;
     private final CommandManager commandManager;
     private Field model;
-    private State state;
+    private Field start;
+    private State state = State.STARTED;
+    private long version;
 
     /**
      * Constructs a facade based on the same arguments as the underlying model: number of rows, columns and colors.
@@ -31,7 +42,8 @@ public class Facade implements Observable {
      */
     public Facade(int nRows, int nCols, int nColors) {
         this.model = new Field(nRows, nCols, nColors);
-        this.observers = new ArrayList<>();
+        this.start = new Field(model);
+        this.events = new EventBus<>(ForkJoinPool.commonPool(), GameEvent::merge);
         this.commandManager = new CommandManager();
     }
 
@@ -70,20 +82,16 @@ public class Facade implements Observable {
      * @param p the position to play the move at.
      */
     public void play(Position p) {
-        Command pl = new PlayCommand(model, p);
+        PlayCommand pl = new PlayCommand(model, p);
         commandManager.execute(pl);
         if (isGameWon()) {
             state = State.WON;
-            notifyObservers();
-            state = State.STARTED;
         } else if (isGameOver()) {
             state = State.GAME_OVER;
-            notifyObservers();
-            state = State.STARTED;
         } else {
             state = State.PLAY;
-            notifyObservers();
         }
+        publish(pl, false);
     }
 
     /**
@@ -119,24 +127,51 @@ public class Facade implements Observable {
      *
      * @return the current score.
      */
-    public int getScore() {
+    public long getScore() {
         return model.getScore();
     }
 
+    /**
+     * Subscribes an observer, updated on the common fork-join pool. The events published while it is busy are merged
+     * into one (see {@link GameEvent#merge(GameEvent)}), so a slow observer holds a single pending event. See
+     * {@link #getEvents()} to pick the executor, get every event or subscribe weakly.
+     *
+     * @param observer the observer.
+     */
     @Override
-    public void subscribe(Observer observer) {
-        observers.add(observer);
+    public void subscribe(Observer<? super GameEvent> observer) {
+        events.subscribe(observer);
     }
 
     @Override
-    public void unsubscribe(Observer observer) {
-        observers.remove(observer);
+    public void unsubscribe(Observer<? super GameEvent> observer) {
+        events.unsubscribe(observer);
     }
 
-    private void notifyObservers() {
-        for (Observer obs : observers) {
-            obs.update();
-        }
+    /**
+     * Gets the bus the events of the game are published on.
+     *
+     * @return the event bus.
+     */
+    public EventBus<GameEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Publishes the event of a move played, undone or redone, with the current state.
+     *
+     * @param command the command of the move.
+     * @param undone  true if the move was undone and false otherwise.
+     */
+    private void publish(Command command, boolean undone) {
+        events.publish(GameEvent.of(++version, state, model, ((PlayCommand) command).getMove(), undone));
+    }
+
+    /**
+     * Publishes the event of a new or loaded board.
+     */
+    private void publishReset() {
+        events.publish(GameEvent.reset(++version, state, model));
     }
 
     /**
@@ -145,9 +180,9 @@ public class Facade implements Observable {
      */
     public void undo() {
         if (!commandManager.isEmptyUndo()) {
-            commandManager.undo();
+            Command c = commandManager.undo();
             state = State.UNDO;
-            notifyObservers();
+            publish(c, true);
         }
     }
 
@@ -157,9 +192,9 @@ public class Facade implements Observable {
      */
     public void redo() {
         if (!commandManager.isEmptyRedo()) {
-            commandManager.redo();
+            Command c = commandManager.redo();
             state = State.REDO;
-            notifyObservers();
+            publish(c, false);
         }
     }
 
@@ -172,6 +207,80 @@ public class Facade implements Observable {
      */
     public void newField(int nRows, int nCols, int nColors) {
         model = new Field(nRows, nCols, nColors);
+        start = new Field(model);
+        commandManager.clear();
+        state = State.STARTED;
+        publishReset();
+    }
+
+    /**
+     * Creates a new field drawn from a given seed, the same seed always gives the same board.
+     *
+     * @param nRows   the number of rows of the grid.
+     * @param nCols   the number of columns of the grid.
+     * @param nColors the number of colors to play with.
+     * @param seed    the seed of the board.
+     */
+    public void newField(int nRows, int nCols, int nColors, long seed) {
+        model = Field.fromSeed(nRows, nCols, nColors, seed);
+        start = new Field(model);
+        commandManager.clear();
+        state = State.STARTED;
+        publishReset();
+    }
+
+    /**
+     * Gets the seed the current board was drawn from, to play or report the same board again.
+     *
+     * @return the seed of the board.
+     */
+    public long getSeed() {
+        return model.getSeed();
+    }
+
+    /**
+     * Gets the record of the current game: its starting board and the moves played since, undone moves excluded.
+     *
+     * @return the record of the game.
+     */
+    public GameRecord getRecord() {
+        List<Move> moves = new ArrayList<>();
+        for (Command c : commandManager.getHistory()) {
+            Move m = ((PlayCommand) c).getMove();
+            if (m != null && m.getSize() > 0) {
+                moves.add(m);
+            }
+        }
+        return GameRecord.of(start, moves);
+    }
+
+    /**
+     * Loads a recorded game: its starting board, then its moves replayed as play commands so that they can be undone.
+     *
+     * @param record the record of the game.
+     */
+    public void load(GameRecord record) {
+        if (record == null) {
+            throw new IllegalArgumentException("Can't load a null record.");
+        }
+        model = record.start();
+        start = new Field(model);
+        commandManager.clear();
+        for (int cell : record.getMoves()) {
+            PlayCommand pl = new PlayCommand(model, model.toPosition(cell));
+            commandManager.execute(pl);
+            if (pl.getMove().getSize() == 0) {
+                throw new IllegalArgumentException("The move at cell " + cell + " of the record can't be played.");
+            }
+        }
+        if (isGameWon()) {
+            state = State.WON;
+        } else if (isGameOver()) {
+            state = State.GAME_OVER;
+        } else {
+            state = record.getMoveCount() == 0 ? State.STARTED : State.PLAY;
+        }
+        publishReset();
     }
 
     /**
@@ -192,12 +301,109 @@ public class Facade implements Observable {
         return commandManager.isEmptyRedo();
     }
 
+    /**
+     * Gets the group of similarly colored tiles the tile at a given position belongs to.
+     *
+     * @param p the position of the tile.
+     * @return the positions of the group, empty if the tile is alone or if there is no tile.
+     */
     public HashSet<Position> groupColor(Position p) {
         return model.groupColor(p);
     }
 
     /**
-     * Gets the current state of the field.
+     * Gets the identifier of the group of every cell, see {@link Field#groupId(int)}. Cells are numbered column by
+     * column, so the cell of a position is <code>col * nRows + row</code>. Identifiers are only meaningful for the
+     * version of the board they were read at, see {@link #getVersion()}.
+     *
+     * @return the group identifier of every cell, -1 for an empty cell.
+     */
+    public int[] getGroupIds() {
+        int[] ids = new int[model.getNCells()];
+        for (int cell = 0; cell < ids.length; cell++) {
+            ids[cell] = model.groupId(cell);
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the size of the group the tile at a given position belongs to.
+     *
+     * @param p the position of the tile.
+     * @return the number of tiles in the group, 1 for a lone tile and 0 if there is no tile.
+     */
+    public int groupSize(Position p) {
+        return model.groupSize(p);
+    }
+
+    /**
+     * Gets the number of tiles left on the board.
+     *
+     * @return the number of remaining tiles.
+     */
+    public int getRemainingTiles() {
+        return model.getRemainingTiles();
+    }
+
+    /**
+     * Gets an upper bound of the final score, reached if every color could be removed in a single move.
+     *
+     * @return the best score that can possibly be reached.
+     */
+    public long getScoreUpperBound() {
+        return model.scoreUpperBound();
+    }
+
+    /**
+     * Checks if the board can't be cleared anymore, that is if some color has a single tile left.
+     *
+     * @return true if the board can't be cleared anymore and false otherwise.
+     */
+    public boolean isDeadEnd() {
+        return model.isDeadEnd();
+    }
+
+    /**
+     * Lists every group that can be played, once, with a representative cell, its size and its color.
+     *
+     * @return the legal moves, ordered by representative cell.
+     */
+    public List<Group> legalMoves() {
+        return model.legalMoves();
+    }
+
+    /**
+     * Gets a copy of the field, to be searched or analyzed without touching the game.
+     *
+     * @return a copy of the field.
+     */
+    public Field copyField() {
+        return new Field(model);
+    }
+
+    /**
+     * Gets the 64-bit hash of the tiles on the field, kept up to date by every move, undo and redo.
+     *
+     * @return the hash of the field.
+     */
+    public long getHash() {
+        return model.hash();
+    }
+
+    /**
+     * Gets the version of the board. It changes every time the board does, when a move is played, undone or redone
+     * and when a new board is started or loaded, so anything computed from the board stays valid as long as the
+     * version is the same.
+     *
+     * @return the version of the board.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the current state of the field, that is the state of the last change. A game won or lost stays so until a
+     * move is undone or a new field is created or loaded.
      *
      * @return the state of the field.
      */
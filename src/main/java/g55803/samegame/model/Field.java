@@ -1,36 +1,101 @@
 package g55803.samegame.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * Provides a field to play the same game on. This is where all the game logic lies and where possibles moves are defined.
  * This class is called "field" but it can also be considered a game board. Both words are used interchangeably in the docs.
+ * <p>
+ * The board is stored as a flat array of bytes in column-major order, a cell holds <code>0</code> when it is empty and
+ * the ordinal of its color plus one otherwise. Tiles are only created at the boundary of the class, when asked for.
+ * <p>
+ * Every cell also knows the group it belongs to and the size of that group. This index is kept up to date lazily: a
+ * change on the board only marks the range of columns it touched as stale, and the groups around them are relabeled
+ * the next time a group is looked up. A move only touches the columns of its group, unless it drops a column, which
+ * moves every column on its right.
+ * <p>
+ * A 64-bit Zobrist hash of the tiles is kept up to date by every move, undo or edit, with one plane of keys per color.
  *
  * @author Nathan Furnal
  */
 public class Field {
+    private static final byte EMPTY = 0;
+    private static final Tile[] TILES = makeTiles();
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    /**
+     * The largest number of tiles of a field, the largest array most virtual machines can allocate.
+     */
+    static final int MAX_CELLS = Integer.MAX_VALUE - 8;
     private final int nRows;
     private final int nCols;
-    private final Tile[][] field;
-    private int score;
+    private final int nColors;
+    private final byte[] cells;
+    private final long[] zobrist;
+    private final int[] counts;
+    private final long seed;
+    private long score;
+    private int activeCols;
+    private int shiftFrom;
+    private boolean settled;
+    private int[] group;
+    private long[] visited;
+    private int[] labels;
+    private int[] groupSizes;
+    private int[] groupFirst;
+    private int[] freeIds;
+    private int nFreeIds;
+    private int nextId;
+    private int movableGroups;
+    private int dirtyFrom;
+    private int dirtyTo;
 
     /**
-     * Creates the game field based on a number of rows, columns and a number of possible colors.
+     * Creates the game field based on a number of rows, columns and a number of possible colors. The colors are drawn
+     * from a random seed, which can be read back with {@link #getSeed()} to create the same board again.
      *
      * @param nRows   the number of rows.
      * @param nCols   the number of columns.
      * @param nColors the number of colors.
      */
     public Field(int nRows, int nCols, int nColors) {
+        this(nRows, nCols, nColors, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates the game field and draws its colors from a single random stream started at a given seed.
+     *
+     * @param nRows   the number of rows.
+     * @param nCols   the number of columns.
+     * @param nColors the number of colors.
+     * @param seed    the seed of the colors.
+     */
+    private Field(int nRows, int nCols, int nColors, long seed) {
+        this(nRows, nCols, nColors, seed, null);
+    }
+
+    /**
+     * Creates the game field from given cells, or from a seed when no cells are given.
+     *
+     * @param nRows   the number of rows.
+     * @param nCols   the number of columns.
+     * @param nColors the number of colors.
+     * @param seed    the seed of the colors.
+     * @param cells   the cell values in index order, or <code>null</code> to draw them from the seed.
+     */
+    private Field(int nRows, int nCols, int nColors, long seed, byte[] cells) {
         if (nRows < 2 || nCols < 2) {
             throw new IllegalArgumentException("There should a positive number of rows and columns larger than 2, received : " +
                     "nRows : " + nRows + ", nCols : " + nCols);
         }
-        if (nRows > 19 || nCols > 19) {
-            throw new IllegalArgumentException("THere should fewer than 20 rows or columns, received : " +
+        if ((long) nRows * nCols > MAX_CELLS) {
+            throw new IllegalArgumentException("There should be at most " + MAX_CELLS + " tiles, received : " +
                     "nRows : " + nRows + ", nCols : " + nCols);
         }
         if (nColors < 2 || nColors > Color.values().length) {
@@ -38,20 +103,30 @@ public class Field {
         }
         this.nRows = nRows;
         this.nCols = nCols;
+        this.nColors = nColors;
         this.score = 0;
-        this.field = new Tile[nRows][nCols];
-        for (int i = 0; i < nRows; i++) {
-            for (int j = 0; j < nCols; j++) {
-                int rnd = new Random().nextInt(nColors);
-                Color[] colors = Color.values();
-                field[i][j] = new Tile(colors[rnd]);
+        this.activeCols = nCols;
+        this.shiftFrom = nCols;
+        this.settled = true;
+        this.seed = seed;
+        if (cells == null) {
+            this.cells = new byte[nRows * nCols];
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < this.cells.length; i++) {
+                this.cells[i] = (byte) (random.nextInt(nColors) + 1);
             }
+        } else {
+            this.cells = cells;
+            settle();
         }
+        this.zobrist = new long[TILES.length];
+        this.counts = new int[TILES.length];
+        rehash();
     }
 
     /**
-     * Copy constructor to copy a field from another one. This completely re-creates the field as well as the tiles
-     * on it, which allows perfectly separate copies.
+     * Copy constructor to copy a field from another one. Since the board is a single array of bytes, the copy is
+     * one array copy and both fields are perfectly separate afterwards.
      *
      * @param other the field to copy.
      */
@@ -62,17 +137,395 @@ public class Field {
         this.score = other.getScore();
         this.nRows = other.getNRows();
         this.nCols = other.getNCols();
-        this.field = new Tile[nRows][nCols];
+        this.nColors = other.nColors;
+        this.activeCols = other.activeCols;
+        this.shiftFrom = other.shiftFrom;
+        this.settled = other.settled;
+        this.seed = other.seed;
+        this.cells = new byte[other.cells.length];
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        this.zobrist = other.zobrist.clone();
+        this.counts = other.counts.clone();
+        // An up to date group index is copied, so that playing the copy only relabels what the move touched. A stale
+        // one is left out and rebuilt when first needed, the copy must not bring the other field up to date.
+        if (other.labels != null && other.dirtyFrom > other.dirtyTo) {
+            // Only the identifiers in use are copied, the arrays indexed by identifier grow back when needed.
+            int ids = Math.max(other.nextId, 1);
+            this.labels = other.labels.clone();
+            this.groupSizes = Arrays.copyOf(other.groupSizes, ids);
+            this.groupFirst = Arrays.copyOf(other.groupFirst, ids);
+            this.freeIds = Arrays.copyOf(other.freeIds, ids);
+            this.nFreeIds = other.nFreeIds;
+            this.nextId = other.nextId;
+            this.movableGroups = other.movableGroups;
+            this.dirtyFrom = nCols;
+            this.dirtyTo = -1;
+        }
+    }
+
+    /**
+     * Creates the game field drawn from a given seed. The same seed and dimensions always give the same board.
+     *
+     * @param nRows   the number of rows.
+     * @param nCols   the number of columns.
+     * @param nColors the number of colors.
+     * @param seed    the seed of the colors.
+     * @return the field.
+     */
+    public static Field fromSeed(int nRows, int nCols, int nColors, long seed) {
+        return new Field(nRows, nCols, nColors, seed);
+    }
+
+    /**
+     * Creates the game field from the colors of its cells, for instance to restore a saved board. Tiles don't have to
+     * lie at the bottom of their columns, they fall with the next move.
+     *
+     * @param nRows   the number of rows.
+     * @param nCols   the number of columns.
+     * @param nColors the number of colors the board is played with.
+     * @param colors  the color of every cell in index order, see {@link #toIndex(Position)}, <code>null</code> for an
+     *                empty cell.
+     * @return the field, with a score of 0 and a seed of 0.
+     */
+    public static Field fromColors(int nRows, int nCols, int nColors, Color[] colors) {
+        if (colors == null || (long) nRows * nCols != colors.length) {
+            throw new IllegalArgumentException("There should be one color per cell, received : " +
+                    (colors == null ? null : colors.length) + " for nRows : " + nRows + ", nCols : " + nCols);
+        }
+        byte[] cells = new byte[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            if (colors[i] != null && colors[i].ordinal() >= nColors) {
+                throw new IllegalArgumentException("The color " + colors[i] + " is not one of the " + nColors +
+                        " colors of the board.");
+            }
+            cells[i] = colors[i] == null ? EMPTY : (byte) (colors[i].ordinal() + 1);
+        }
+        return new Field(nRows, nCols, nColors, 0L, cells);
+    }
+
+    /**
+     * Creates the game field from a board of a corpus. The cells are copied straight from the mapped file, no color is
+     * drawn or parsed.
+     *
+     * @param corpus the corpus.
+     * @param index  the index of the board in the corpus.
+     * @return the field, with a score of 0 and the seed stored with the board.
+     */
+    public static Field fromCorpus(Corpus corpus, long index) {
+        if (corpus == null) {
+            throw new IllegalArgumentException("The corpus can't be null.");
+        }
+        byte[] cells = new byte[corpus.getNRows() * corpus.getNCols()];
+        long seed = corpus.read(index, cells);
+        // The cells are checked before they are counted, since they index the counts.
+        for (byte c : cells) {
+            if ((c & 0xFF) > corpus.getNColors()) {
+                throw new IllegalArgumentException("The board " + index + " of the corpus holds more than " +
+                        corpus.getNColors() + " colors.");
+            }
+        }
+        return new Field(corpus.getNRows(), corpus.getNCols(), corpus.getNColors(), seed, cells);
+    }
+
+    /**
+     * Looks at how the tiles lie to know which moves can take the fast path. When every tile lies at the bottom of
+     * its column and the empty columns are all on the right, the field is settled like a field that was only played
+     * on. Otherwise the next move looks at every column, like after tiles set by hand.
+     */
+    private void settle() {
+        int active = 0;
+        boolean ok = true;
+        for (int col = 0; col < nCols && ok; col++) {
+            int row = 0;
+            while (row < nRows && cells[index(row, col)] == EMPTY) {
+                row++;
+            }
+            for (int r = row; r < nRows && ok; r++) {
+                ok = cells[index(r, col)] != EMPTY;
+            }
+            if (row < nRows) {
+                ok &= active == col;
+                active = col + 1;
+            }
+        }
+        activeCols = ok ? active : nCols;
+        shiftFrom = ok ? nCols : 0;
+        settled = ok;
+    }
+
+    /**
+     * Streams boards drawn from consecutive seeds: the board at index <code>i</code> is the one given by
+     * <code>fromSeed(nRows, nCols, nColors, baseSeed + i)</code>. Boards only depend on their index, so the stream
+     * can be made parallel and split between workers without changing them.
+     *
+     * @param nRows    the number of rows.
+     * @param nCols    the number of columns.
+     * @param nColors  the number of colors.
+     * @param baseSeed the seed of the first board.
+     * @param count    the number of boards.
+     * @return the stream of boards.
+     */
+    public static Stream<Field> fromSeeds(int nRows, int nCols, int nColors, long baseSeed, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of boards can't be negative, received : " + count);
+        }
+        return LongStream.range(0, count).mapToObj(i -> new Field(nRows, nCols, nColors, baseSeed + i));
+    }
+
+    /**
+     * Creates the shared tiles, one per color. Tiles are immutable so a single instance per color is enough.
+     *
+     * @return the tiles indexed by cell value, the empty cell maps to <code>null</code>.
+     */
+    private static Tile[] makeTiles() {
+        Color[] colors = Color.values();
+        Tile[] tiles = new Tile[colors.length + 1];
+        for (Color c : colors) {
+            tiles[c.ordinal() + 1] = new Tile(c);
+        }
+        return tiles;
+    }
+
+    /**
+     * Gets the index of a cell in the underlying array, cells are laid out column by column.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the index of the cell.
+     */
+    private int index(int row, int col) {
+        return col * nRows + row;
+    }
+
+    /**
+     * Gets the Zobrist key of a cell. Keys are derived from the index of the cell with the SplitMix64 finalizer rather
+     * than drawn in a table, so fields of any size share them without storing anything.
+     *
+     * @param cell the index of the cell.
+     * @return the key of the cell.
+     */
+    private static long key(int cell) {
+        return mix((cell + 1) * GOLDEN);
+    }
+
+    /**
+     * Mixes the bits of a value, this is the SplitMix64 finalizer.
+     *
+     * @param z the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Computes the Zobrist planes and the number of tiles of each color from scratch, only used when the whole board
+     * is replaced.
+     */
+    private void rehash() {
+        Arrays.fill(zobrist, 0);
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < cells.length; i++) {
+            zobrist[cells[i]] ^= key(i);
+            counts[cells[i]]++;
+        }
+        zobrist[EMPTY] = 0;
+        counts[EMPTY] = 0;
+    }
+
+    /**
+     * Moves a tile from a cell to another, the source cell is left empty.
+     *
+     * @param from the index of the source cell.
+     * @param to   the index of the target cell.
+     */
+    private void moveTile(int from, int to) {
+        byte c = cells[from];
+        cells[to] = c;
+        cells[from] = EMPTY;
+        zobrist[c] ^= key(from) ^ key(to);
+    }
+
+    /**
+     * Copies a whole column over another one. The source column is considered empty afterwards and must either be
+     * overwritten or cleared by the caller.
+     *
+     * @param from the source column.
+     * @param to   the target column.
+     */
+    private void moveColumn(int from, int to) {
+        int src = index(0, from);
+        int dst = index(0, to);
         for (int i = 0; i < nRows; i++) {
-            for (int j = 0; j < nCols; j++) {
-                Position p = new Position(i, j);
-                if (other.getTile(p) != null) {
-                    this.setTile(new Position(i, j), new Tile(other.getTile(p).getColor()));
-                } else {
-                    this.setTile(new Position(i, j), null);
-                }
+            byte c = cells[src + i];
+            if (c != EMPTY) {
+                zobrist[c] ^= key(src + i) ^ key(dst + i);
             }
         }
+        System.arraycopy(cells, src, cells, dst, nRows);
+    }
+
+    /**
+     * Gets the 64-bit Zobrist hash of the tiles on the field. It is kept up to date by every change, so getting it
+     * only costs a few operations per color. Two fields that are {@link #equals(Object) equal} have the same hash, the
+     * score is left out so that the same board reached with different scores hashes the same.
+     *
+     * @return the hash of the field.
+     */
+    public long hash() {
+        long h = nRows * GOLDEN + nCols;
+        for (int c = 1; c < zobrist.length; c++) {
+            h ^= mix(zobrist[c] + c * GOLDEN);
+        }
+        return h;
+    }
+
+    /**
+     * Gets the number of tiles of a given color left on the board, in constant time.
+     *
+     * @param c the color.
+     * @return the number of tiles of that color.
+     */
+    public int getColorCount(Color c) {
+        if (c == null) {
+            throw new IllegalArgumentException("The color can't be null.");
+        }
+        return counts[c.ordinal() + 1];
+    }
+
+    /**
+     * Gets the number of tiles left on the board, in constant time.
+     *
+     * @return the number of remaining tiles.
+     */
+    public int getRemainingTiles() {
+        int remaining = 0;
+        for (int c = 1; c < counts.length; c++) {
+            remaining += counts[c];
+        }
+        return remaining;
+    }
+
+    /**
+     * Checks if the board can't be cleared anymore, whatever the moves played. Tiles are only removed by groups of at
+     * least two, so a color with a single tile left can never be cleared. This is computed in constant time from the
+     * number of tiles of each color.
+     *
+     * @return true if some color has a single tile left and false otherwise.
+     */
+    public boolean isDeadEnd() {
+        for (int c = 1; c < counts.length; c++) {
+            if (counts[c] == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets an upper bound of the final score that can be reached from this field. At best, all the tiles of a color
+     * are removed in a single move, and since <code>(a + b)(a + b - 1) >= a(a - 1) + b(b - 1)</code> no sequence of
+     * moves can earn more than that for each color. This is computed in constant time from the number of tiles of
+     * each color, which is kept up to date by every move.
+     *
+     * @return the current score plus the sum of <code>n(n - 1)</code> over the number of tiles <code>n</code> of each
+     * color.
+     */
+    public long scoreUpperBound() {
+        long bound = score;
+        for (int c = 1; c < counts.length; c++) {
+            bound += (long) counts[c] * (counts[c] - 1);
+        }
+        return bound;
+    }
+
+    /**
+     * Ranks the colors of the board by their first appearance in index order, that is column by column from the top
+     * of the left-most column. The scan stops as soon as every color left on the board has been met.
+     *
+     * @return the rank of each cell value, from 1, and 0 for the empty cell and the colors not on the board.
+     */
+    private byte[] colorRanks() {
+        byte[] ranks = new byte[TILES.length];
+        int present = 0;
+        for (int c = 1; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                present++;
+            }
+        }
+        byte next = 0;
+        for (int i = 0; i < cells.length && next < present; i++) {
+            byte c = cells[i];
+            if (c != EMPTY && ranks[c] == 0) {
+                ranks[c] = ++next;
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Gets the hash of the canonical form of the field, see {@link #canonical()}. Fields that only differ by a
+     * relabeling of their colors have the same canonical hash, so searches can share what they learnt about them.
+     * It is computed from the hash planes and the first cells of the board, without copying it.
+     *
+     * @return the canonical hash of the field, equal to <code>canonical().hash()</code>.
+     */
+    public long canonicalHash() {
+        byte[] ranks = colorRanks();
+        long[] planes = new long[zobrist.length];
+        for (int c = 1; c < zobrist.length; c++) {
+            planes[ranks[c]] = zobrist[c];
+        }
+        long h = nRows * GOLDEN + nCols;
+        for (int c = 1; c < planes.length; c++) {
+            h ^= mix(planes[c] + c * GOLDEN);
+        }
+        return h;
+    }
+
+    /**
+     * Creates the canonical form of the field: the colors are relabeled in order of first appearance, column by
+     * column from the top of the left-most column, so the first color met becomes the first color of
+     * {@link Color}, and so on. Two fields that only differ by a relabeling of their colors have the same future and
+     * the same canonical form. The score and the seed are kept.
+     *
+     * @return a relabeled copy of the field.
+     */
+    public Field canonical() {
+        byte[] ranks = colorRanks();
+        Field f = new Field(this);
+        for (int i = 0; i < cells.length; i++) {
+            f.cells[i] = ranks[cells[i]];
+        }
+        Arrays.fill(f.zobrist, 0);
+        Arrays.fill(f.counts, 0);
+        for (int c = 1; c < counts.length; c++) {
+            f.zobrist[ranks[c]] = zobrist[c];
+            f.counts[ranks[c]] = counts[c];
+        }
+        f.zobrist[EMPTY] = 0;
+        f.counts[EMPTY] = 0;
+        return f;
+    }
+
+    /**
+     * Gets the number of colors the field is played with.
+     *
+     * @return the number of colors.
+     */
+    public int getNColors() {
+        return nColors;
+    }
+
+    /**
+     * Gets the seed the field was drawn from. Tiles set by hand afterwards are not reflected by the seed.
+     *
+     * @return the seed of the field.
+     */
+    public long getSeed() {
+        return seed;
     }
 
     /**
@@ -93,6 +546,24 @@ public class Field {
         return nCols;
     }
 
+    /**
+     * Gets the number of cells on the board, cell indices go from 0 to this number excluded.
+     *
+     * @return the number of cells.
+     */
+    public int getNCells() {
+        return cells.length;
+    }
+
+    /**
+     * Gets the cells of the field, not copied, for the writers of the field formats.
+     *
+     * @return the cells in index order.
+     */
+    byte[] cells() {
+        return cells;
+    }
+
     /**
      * Gets a tile at a given position.
      *
@@ -101,7 +572,18 @@ public class Field {
      */
     public Tile getTile(Position p) {
         checkPosition(p);
-        return field[p.getRow()][p.getCol()];
+        return TILES[cells[index(p.getRow(), p.getCol())]];
+    }
+
+    /**
+     * Gets the color of the tile at a given cell, see {@link #toIndex(Position)} for the meaning of an index.
+     *
+     * @param cell the index of the cell.
+     * @return the color of the tile or <code>null</code> if there is no tile.
+     */
+    public Color getColor(int cell) {
+        checkCell(cell);
+        return cells[cell] == EMPTY ? null : TILES[cells[cell]].getColor();
     }
 
     /**
@@ -112,7 +594,19 @@ public class Field {
      */
     public void setTile(Position p, Tile tile) {
         checkPosition(p);
-        field[p.getRow()][p.getCol()] = tile;
+        int cell = index(p.getRow(), p.getCol());
+        zobrist[cells[cell]] ^= key(cell);
+        counts[cells[cell]]--;
+        cells[cell] = tile == null ? EMPTY : (byte) (tile.getColor().ordinal() + 1);
+        zobrist[cells[cell]] ^= key(cell);
+        counts[cells[cell]]++;
+        zobrist[EMPTY] = 0;
+        counts[EMPTY] = 0;
+        invalidate(p.getCol(), p.getCol());
+        // Tiles set by hand may leave empty columns anywhere, the next move has to look at all of them.
+        activeCols = nCols;
+        shiftFrom = Math.min(shiftFrom, p.getCol());
+        settled = false;
     }
 
     /**
@@ -120,7 +614,7 @@ public class Field {
      *
      * @return the current score.
      */
-    public int getScore() {
+    public long getScore() {
         return score;
     }
 
@@ -129,7 +623,7 @@ public class Field {
      *
      * @param newScore the new value of the score.
      */
-    public void setScore(int newScore) {
+    public void setScore(long newScore) {
         if (newScore < 0) {
             throw new IllegalArgumentException("The score should be a positive integer, received : " + newScore);
         }
@@ -137,57 +631,68 @@ public class Field {
     }
 
     /**
-     * Any time a move is made, this method is called. It checks if there are any empty columns and then left aligns
-     * them until no column is left with empty space on its left.
+     * Any time a move is made, this method is called. It drops the empty columns from a given column onwards and left
+     * aligns the others, in a single pass over the columns that hold tiles, see {@link #isFreeColumn(int)}.
+     *
+     * @param from the left-most column that may have become empty.
      */
-    private void fillFreeColumns() {
-        for (int j = 0; j < nCols; j++) { // for every column
-            if (field[nRows - 1][j] == null) { // if the bottom tile is empty (depends on tiles falling properly)
-                int steps = 0; // start counting
-                while (j + steps < nCols) { // while in the board
-                    if (field[nRows - 1][j + steps] != null) { // at the first non-empty bottom tile
-                        for (int i = 0; i < nRows; i++) { // bring all the tiles over from the non-empty column
-                            field[i][j] = field[i][j + steps];
-                            field[i][j + steps] = null; // cleanup after displacement
-                        }
-                        break; // break since the column has been moved
-                    }
-                    steps++; // if not, increase by one step on the right
+    private void fillFreeColumns(int from) {
+        int target = from;
+        int firstDropped = -1;
+        for (int j = from; j < activeCols; j++) {
+            if (!isFreeColumn(j)) {
+                if (j != target) {
+                    moveColumn(j, target);
                 }
+                target++;
+            } else if (firstDropped < 0) {
+                firstDropped = j;
             }
         }
+        if (firstDropped >= 0) {
+            // Every column from the first dropped one was moved or cleared.
+            invalidate(firstDropped, activeCols - 1);
+        }
+        Arrays.fill(cells, index(0, target), index(0, activeCols), EMPTY); // cleanup after displacement
+        activeCols = target;
+        shiftFrom = nCols;
     }
 
     /**
-     * Makes tiles fall at a given column. Any tile with empty space below it goes down until it meets the end of
-     * the board or another tile.
+     * Checks if a column holds no tile. On a settled field tiles lie at the bottom of their column, so only the bottom
+     * cell is read. Tiles set by hand may float above an empty bottom cell, so the whole column is read otherwise.
      *
-     * @param col the column where to make the tiles fall.
+     * @param col the column.
+     * @return true if the column holds no tile and false otherwise.
      */
-    private void fall(int col) {
-        colCheck(col);
-        for (int i = nRows - 1; i >= 0; i--) {
-            int steps = 0;
-            while (i - steps >= 0) {
-                if (field[i][col] == null && field[i - steps][col] != null) {
-                    Tile temp = field[i - steps][col];
-                    field[i - steps][col] = field[i][col];
-                    field[i][col] = temp;
-                }
-                steps++;
+    private boolean isFreeColumn(int col) {
+        if (settled) {
+            return cells[index(nRows - 1, col)] == EMPTY;
+        }
+        for (int i = index(0, col); i < index(0, col + 1); i++) {
+            if (cells[i] != EMPTY) {
+                return false;
             }
         }
+        return true;
     }
 
     /**
-     * Checks that a given column is inside the board. Throws an exception otherwise.
+     * Makes tiles fall at a given column in a single pass from the bottom. Any tile with empty space below it goes
+     * down until it meets the end of the board or another tile.
      *
-     * @param col the column to check.
+     * @param col the column where to make the tiles fall.
      */
-    private void colCheck(int col) {
-        if (col < 0 || col >= nCols) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid position, col is expected to be between 0 and %d but received %d", nCols, col));
+    private void fall(int col) {
+        int top = index(0, col);
+        int target = index(nRows - 1, col);
+        for (int i = target; i >= top; i--) {
+            if (cells[i] != EMPTY) {
+                if (i != target) {
+                    moveTile(i, target);
+                }
+                target--;
+            }
         }
     }
 
@@ -205,78 +710,471 @@ public class Field {
         }
     }
 
+    /**
+     * Checks that a cell index is valid on the board. Throws an exception otherwise.
+     *
+     * @param cell the index to check.
+     */
+    private void checkCell(int cell) {
+        if (cell < 0 || cell >= cells.length) {
+            throw new IllegalArgumentException("This cell is out of the board : " + cell);
+        }
+    }
+
     /**
      * Groups similarly colored tiles together when a tile is selected. Selects the tile at the given position and
-     * then explores its surrounding in the four possible directions until it meets tiles of different colors. A history
-     * of all valid positions (tiles of the same color) is kept and returned.
+     * then explores its surrounding in the four possible directions until it meets tiles of different colors. All
+     * valid positions (tiles of the same color) are returned, a lone tile does not make a group.
      *
      * @param p the position to check the tile at.
      * @return a set of all positions where tiles have the same color as the tile at the given position.
      */
     HashSet<Position> groupColor(Position p) {
+        HashSet<Position> positions = new HashSet<>();
+        if (groupSize(p) < 2) {
+            return positions;
+        }
+        int size = flood(index(p.getRow(), p.getCol()));
+        for (int k = 0; k < size; k++) {
+            positions.add(toPosition(group[k]));
+        }
+        return positions;
+    }
+
+    /**
+     * Groups similarly colored tiles together, just like {@link #groupColor(Position)}, but returns the indices
+     * of the cells in the group rather than positions. See {@link #toIndex(Position)} for the meaning of an index.
+     *
+     * @param p the position to check the tile at.
+     * @return the indices of the cells in the group, empty if there is no group of at least two tiles.
+     */
+    public int[] groupCells(Position p) {
+        if (groupSize(p) < 2) {
+            return new int[0];
+        }
+        // The flood allocates its buffer on first use, so it must run before the buffer is read.
+        int size = flood(index(p.getRow(), p.getCol()));
+        return Arrays.copyOf(group, size);
+    }
+
+    /**
+     * Gets the size of the group the tile at a given position belongs to, in constant time once the group index
+     * is up to date.
+     *
+     * @param p the position of the tile.
+     * @return the number of tiles in the group, 1 for a lone tile and 0 if there is no tile.
+     */
+    public int groupSize(Position p) {
         checkPosition(p);
-        HashSet<Position> positions = new HashSet<>(); // Empty set holding all the positions after the recursion is done.
-        return groupColor(p, positions);
+        return groupSize(index(p.getRow(), p.getCol()));
     }
 
     /**
-     * Underlying algorithm to group the colors, it calls itself until no valid surrounding color is left.
+     * Gets the size of the group the tile at a given cell belongs to, see {@link #groupSize(Position)}.
      *
-     * @param p         the position to check the tile at.
-     * @param positions the current history of valid already visited positions.
-     * @return a set of valid positions.
+     * @param cell the index of the cell.
+     * @return the number of tiles in the group, 1 for a lone tile and 0 if there is no tile.
      */
-    private HashSet<Position> groupColor(Position p, HashSet<Position> positions) {
+    public int groupSize(int cell) {
+        checkCell(cell);
+        ensureLabels();
+        int id = labels[cell];
+        return id < 0 ? 0 : groupSizes[id];
+    }
+
+    /**
+     * Gets the identifier of the group the tile at a given position belongs to. Two tiles are in the same group
+     * if and only if they have the same identifier, identifiers are only meaningful until the board changes.
+     *
+     * @param p the position of the tile.
+     * @return the identifier of the group or -1 if there is no tile.
+     */
+    public int groupId(Position p) {
         checkPosition(p);
-        int x = p.getRow();
-        int y = p.getCol();
-        Tile tile = field[x][y];
-        for (Direction d : Direction.values()) {
-            int xdx = x + d.deltaRow;
-            int ydy = y + d.deltaCol;
-            if (xdx >= 0 && xdx < nRows && ydy >= 0 && ydy < nCols) {
-                Position newPos = p.move(d);
-                if (tile != null && field[xdx][ydy] != null
-                        && field[xdx][ydy].getColor().equals(tile.getColor()) && !positions.contains(newPos)) {
-                    positions.add(newPos);
-                    groupColor(newPos, positions);
+        return groupId(index(p.getRow(), p.getCol()));
+    }
+
+    /**
+     * Gets the identifier of the group the tile at a given cell belongs to, see {@link #groupId(Position)}.
+     * Identifiers are always lower than the number of cells.
+     *
+     * @param cell the index of the cell.
+     * @return the identifier of the group or -1 if there is no tile.
+     */
+    public int groupId(int cell) {
+        checkCell(cell);
+        ensureLabels();
+        return labels[cell];
+    }
+
+    /**
+     * Gets the number of moves that can be played, that is the number of groups of at least two tiles.
+     *
+     * @return the number of legal moves.
+     */
+    public int legalMoveCount() {
+        ensureLabels();
+        return movableGroups;
+    }
+
+    /**
+     * Lists every group that can be played, once, in a single pass over the board. A group is represented by its
+     * first cell in index order, so the same board always gives the same list.
+     *
+     * @return the legal moves, ordered by representative cell.
+     */
+    public List<Group> legalMoves() {
+        int[] out = new int[legalMoveCount()];
+        int n = legalMoves(out);
+        List<Group> moves = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            int cell = out[k];
+            moves.add(new Group(cell, toPosition(cell), groupSizes[labels[cell]], getColor(cell)));
+        }
+        return moves;
+    }
+
+    /**
+     * Writes the representative cell of every group that can be played to a buffer, without allocating. This is
+     * the same enumeration as {@link #legalMoves()}, meant for the inner loop of searches.
+     *
+     * @param out the buffer to write the cells to, at least {@link #legalMoveCount()} long. A buffer of half the
+     *            number of cells is always large enough.
+     * @return the number of cells written.
+     */
+    public int legalMoves(int[] out) {
+        ensureLabels();
+        if (out == null || out.length < movableGroups) {
+            throw new IllegalArgumentException("The buffer should hold at least " + movableGroups + " moves.");
+        }
+        int n = 0;
+        for (int cell = 0; cell < cells.length && n < movableGroups; cell++) {
+            int id = labels[cell];
+            if (id >= 0 && groupFirst[id] == cell && groupSizes[id] >= 2) {
+                out[n++] = cell;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Marks the group index as stale over a range of columns. The columns outside the range did not change, so only the
+     * groups that cross the range can have changed.
+     *
+     * @param from the left-most column that changed.
+     * @param to   the right-most column that changed.
+     */
+    private void invalidate(int from, int to) {
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
+    }
+
+    /**
+     * Brings the group index up to date. The groups of the stale columns, and of the columns right beside them since
+     * they may have split or merged with the stale ones, are released then flooded again. A group that reached the
+     * stale columns from outside goes through one of those two columns, which did not change, so flooding from them
+     * relabels it whole. Groups lying entirely outside keep their identifiers. The first cell of every group, in index
+     * order, is kept as its representative.
+     */
+    private void ensureLabels() {
+        if (dirtyFrom > dirtyTo && labels != null) {
+            return;
+        }
+        if (labels == null) {
+            int ids = Math.min(cells.length, 64);
+            labels = new int[cells.length];
+            groupSizes = new int[ids];
+            groupFirst = new int[ids];
+            freeIds = new int[ids];
+            Arrays.fill(labels, -1);
+            dirtyFrom = 0;
+            dirtyTo = nCols - 1;
+        }
+        int start = index(0, Math.max(dirtyFrom - 1, 0));
+        int end = index(0, Math.min(dirtyTo + 2, nCols));
+        dirtyFrom = nCols;
+        dirtyTo = -1;
+        for (int i = start; i < end; i++) {
+            int id = labels[i];
+            if (id >= 0 && groupSizes[id] > 0) {
+                if (groupSizes[id] >= 2) {
+                    movableGroups--;
+                }
+                groupSizes[id] = 0;
+                freeIds[nFreeIds++] = id;
+            }
+            labels[i] = -1;
+        }
+        for (int i = start; i < end; i++) {
+            if (cells[i] != EMPTY && labels[i] < 0) {
+                int id = newId();
+                int size = flood(i);
+                int first = i;
+                for (int k = 0; k < size; k++) {
+                    labels[group[k]] = id;
+                    first = Math.min(first, group[k]);
+                }
+                groupSizes[id] = size;
+                groupFirst[id] = first;
+                if (size >= 2) {
+                    movableGroups++;
                 }
             }
         }
-        return positions;
     }
 
     /**
-     * Plays a move at a given position. First the position is checked for validity. Then, the group of valid color
+     * Takes a free group identifier, or a new one. The arrays indexed by identifier grow with the number of
+     * identifiers in use, which can't exceed the number of cells.
+     *
+     * @return the identifier.
+     */
+    private int newId() {
+        if (nFreeIds > 0) {
+            return freeIds[--nFreeIds];
+        }
+        if (nextId == groupSizes.length) {
+            int ids = (int) Math.min((long) cells.length, 2L * nextId);
+            groupSizes = Arrays.copyOf(groupSizes, ids);
+            groupFirst = Arrays.copyOf(groupFirst, ids);
+            freeIds = Arrays.copyOf(freeIds, ids);
+        }
+        return nextId++;
+    }
+
+    /**
+     * Gets the index of the cell at a given position. Cells are numbered column by column, from the top of the
+     * left-most column, so the index of a position is <code>col * nRows + row</code>.
+     *
+     * @param p the position of the cell.
+     * @return the index of the cell.
+     */
+    public int toIndex(Position p) {
+        checkPosition(p);
+        return index(p.getRow(), p.getCol());
+    }
+
+    /**
+     * Gets the position of a cell from its index, this is the reverse of {@link #toIndex(Position)}.
+     *
+     * @param cell the index of the cell.
+     * @return the position of the cell.
+     */
+    public Position toPosition(int cell) {
+        checkCell(cell);
+        return new Position(cell % nRows, cell / nRows);
+    }
+
+    /**
+     * Underlying algorithm to group the colors. It is an iterative flood fill where the group buffer acts as the
+     * work list: cells are appended when first seen and read back one by one until no valid neighbor is left. The
+     * visited bitmap is cleared again from the group itself, so each call only costs the size of the group.
+     *
+     * @param start the index of the cell to start from.
+     * @return the number of cells in the group, they are found at the start of the group buffer.
+     */
+    private int flood(int start) {
+        byte color = cells[start];
+        if (color == EMPTY) {
+            return 0;
+        }
+        if (group == null) {
+            group = new int[cells.length];
+            visited = new long[(cells.length >>> 6) + 1];
+        }
+        int size = 0;
+        group[size++] = start;
+        visited[start >>> 6] |= 1L << start;
+        for (int head = 0; head < size; head++) {
+            int cell = group[head];
+            int row = cell % nRows;
+            if (row > 0) size = visit(cell - 1, color, size);
+            if (row < nRows - 1) size = visit(cell + 1, color, size);
+            if (cell >= nRows) size = visit(cell - nRows, color, size);
+            if (cell + nRows < cells.length) size = visit(cell + nRows, color, size);
+        }
+        for (int k = 0; k < size; k++) {
+            visited[group[k] >>> 6] &= ~(1L << group[k]);
+        }
+        return size;
+    }
+
+    /**
+     * Appends a neighbor to the group buffer if it has the right color and has not been visited yet.
+     *
+     * @param cell  the index of the neighbor.
+     * @param color the color of the group.
+     * @param size  the current size of the group.
+     * @return the new size of the group.
+     */
+    private int visit(int cell, byte color, int size) {
+        if (cells[cell] == color && (visited[cell >>> 6] & (1L << cell)) == 0) {
+            visited[cell >>> 6] |= 1L << cell;
+            group[size++] = cell;
+        }
+        return size;
+    }
+
+    /**
+     * Plays a move at a given cell. First the cell is checked for validity. Then, the group of valid color
      * is selected as well as the columns where falling will be necessary. Then, each tile in those positions is removed,
      * the tiles above the fall and the score is updated.
      *
-     * @param p the position where to play the move at.
+     * @param start the index of the cell where to play the move at.
+     * @return the indices of the removed cells, sorted, empty if nothing was played.
      */
-    private void playMove(Position p) {
-        checkPosition(p);
-        if (getTile(p) == null) {
+    private int[] playMove(int start) {
+        if (cells[start] == EMPTY) {
             throw new IllegalArgumentException("Can't play a null tile!");
         }
-        HashSet<Position> positions = groupColor(p);
-        Set<Integer> uniqueCols = positions.stream().map(Position::getCol).collect(Collectors.toSet());
-        for (Position pos : positions) {
-            field[pos.getRow()][pos.getCol()] = null;
+        int size = flood(start);
+        if (size < 2) {
+            return new int[0];
+        }
+        int[] removed = Arrays.copyOf(group, size);
+        Arrays.sort(removed);
+        counts[cells[start]] -= size;
+        for (int cell : removed) {
+            zobrist[cells[cell]] ^= key(cell);
+            cells[cell] = EMPTY;
         }
-        for (int col : uniqueCols) {
+        // A group is connected, so every column between its left-most and right-most cells is touched.
+        int minCol = removed[0] / nRows;
+        int maxCol = removed[size - 1] / nRows;
+        for (int col = minCol; col <= maxCol; col++) {
             fall(col);
         }
-        score += positions.size() * (positions.size() - 1);
+        invalidate(minCol, maxCol);
+        score += (long) size * (size - 1);
+        return removed;
     }
 
     /**
      * Plays a move using the playing algorithm then left aligns the columns if necessary.
      *
      * @param p the position to play the move at and to pass to the play algorithm.
+     * @return the record of what the move changed, which can be given back to {@link #undo(Move)}.
      */
-    public void play(Position p) {
-        playMove(p);
-        fillFreeColumns();
+    public Move play(Position p) {
+        checkPosition(p);
+        return play(index(p.getRow(), p.getCol()));
+    }
+
+    /**
+     * Plays a move at a given cell, see {@link #toIndex(Position)} for the meaning of an index. This is the same as
+     * {@link #play(Position)} without creating a position, for callers that already work with cell indices.
+     *
+     * @param cell the index of the cell to play the move at.
+     * @return the record of what the move changed, which can be given back to {@link #undo(Move)}.
+     */
+    public Move play(int cell) {
+        checkCell(cell);
+        byte color = cells[cell];
+        byte[] before = settled ? null : cells.clone();
+        long scoreBefore = score;
+        int activeBefore = activeCols;
+        int shiftBefore = shiftFrom;
+        int[] removed = playMove(cell);
+        if (removed.length == 0) {
+            return new Move(removed, EMPTY, removed, 0, activeBefore, shiftBefore, null);
+        }
+        int[] dropped = new int[0];
+        if (settled) {
+            // Only the columns of the group may have been emptied on a settled field.
+            int minCol = removed[0] / nRows;
+            int maxCol = removed[removed.length - 1] / nRows;
+            int count = 0;
+            for (int col = minCol; col <= maxCol; col++) {
+                if (cells[index(nRows - 1, col)] == EMPTY) {
+                    count++;
+                }
+            }
+            dropped = new int[count];
+            for (int col = minCol, k = 0; col <= maxCol; col++) {
+                if (cells[index(nRows - 1, col)] == EMPTY) {
+                    dropped[k++] = col;
+                }
+            }
+        }
+        int from = Math.min(removed[0] / nRows, shiftFrom);
+        fillFreeColumns(from);
+        return new Move(removed, color, dropped, score - scoreBefore, activeBefore, shiftBefore, before);
+    }
+
+    /**
+     * Cancels a move, the field goes back to the exact state it was in before the move. Only the cells and columns
+     * the move changed are visited. The move must be the last one played on this field.
+     *
+     * @param move the move to cancel, as returned by {@link #play(Position)}.
+     */
+    public void undo(Move move) {
+        if (move == null) {
+            throw new IllegalArgumentException("Can't undo a null move.");
+        }
+        int[] removed = move.removed();
+        if (removed.length == 0) {
+            return;
+        }
+        if (move.before() != null) {
+            System.arraycopy(move.before(), 0, cells, 0, cells.length);
+            rehash();
+            activeCols = move.activeCols();
+            shiftFrom = move.shiftFrom();
+            score -= move.getScore();
+            invalidate(0, nCols - 1);
+            return;
+        }
+        int minCol = removed[0] / nRows;
+        int maxCol = removed[removed.length - 1] / nRows;
+        int[] dropped = move.dropped();
+        if (dropped.length > 0) {
+            // Put the dropped columns back, moving the columns on their right from the right-most one.
+            int k = activeCols - 1;
+            int d = dropped.length - 1;
+            for (int j = move.activeCols() - 1; j >= minCol; j--) {
+                if (d >= 0 && dropped[d] == j) {
+                    Arrays.fill(cells, index(0, j), index(0, j + 1), EMPTY);
+                    d--;
+                } else {
+                    if (k != j) {
+                        moveColumn(k, j);
+                    }
+                    k--;
+                }
+            }
+        }
+        // Lift the tiles of each touched column back above the removed cells, from the top of the column.
+        counts[move.color()] += removed.length;
+        int r = 0;
+        for (int col = minCol; col <= maxCol; col++) {
+            int top = index(0, col);
+            int bottom = index(nRows - 1, col);
+            int end = r;
+            while (end < removed.length && removed[end] <= bottom) {
+                end++;
+            }
+            int read = top;
+            while (read <= bottom && cells[read] == EMPTY) {
+                read++;
+            }
+            int write = read - (end - r);
+            for (int i = write; i <= bottom; i++) {
+                if (r < end && removed[r] == i) {
+                    cells[i] = move.color();
+                    zobrist[move.color()] ^= key(i);
+                    r++;
+                } else {
+                    if (read != i) {
+                        moveTile(read, i);
+                    }
+                    read++;
+                }
+            }
+        }
+        activeCols = move.activeCols();
+        score -= move.getScore();
+        // Putting dropped columns back moves every column on their right.
+        invalidate(minCol, dropped.length > 0 ? activeCols - 1 : maxCol);
     }
 
     /**
@@ -287,20 +1185,8 @@ public class Field {
      * @return true if the game is over and false otherwise.
      */
     boolean isGameOver() {
-        for (int i = 0; i < nRows; i++) {
-            for (int j = 0; j < nCols; j++) {
-                Tile curr = field[i][j];
-                for (Direction d : Direction.values()) {
-                    int idx = i + d.deltaRow;
-                    int jdy = j + d.deltaCol;
-                    if (curr != null && idx >= 0 && idx < nRows && jdy >= 0 && jdy < nCols && field[idx][jdy] != null) {
-                        if (curr.getColor().equals(field[idx][jdy].getColor()))
-                            return false;
-                    }
-                }
-            }
-        }
-        return true;
+        ensureLabels();
+        return movableGroups == 0;
     }
 
     /**
@@ -310,7 +1196,7 @@ public class Field {
      * @return true if the game is won and false otherwise.
      */
     boolean isGameWon() {
-        return field[nRows - 1][0] == null;
+        return cells[index(nRows - 1, 0)] == EMPTY;
     }
 
     /**
@@ -319,10 +1205,33 @@ public class Field {
      * @param c Color to set.
      */
     void setAllColors(Color c) {
-        for (int i = 0; i < nRows; i++) {
-            for (int j = 0; j < nCols; j++) {
-                field[i][j] = new Tile(c);
-            }
-        }
+        Arrays.fill(cells, (byte) (c.ordinal() + 1));
+        rehash();
+        invalidate(0, nCols - 1);
+        activeCols = nCols;
+        shiftFrom = nCols;
+        settled = true;
+    }
+
+    /**
+     * Checks if two fields hold the same state: same size, same tiles at the same positions and same score.
+     *
+     * @param o the object to compare to.
+     * @return true if both fields hold the same state and false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Field other = (Field) o;
+
+        if (nRows != other.nRows || nCols != other.nCols || score != other.score) return false;
+        return Arrays.equals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash());
     }
 }
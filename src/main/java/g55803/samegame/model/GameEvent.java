@@ -0,0 +1,206 @@
+package g55803.samegame.model;
+
+import java.util.BitSet;
+
+/**
+ * Provides the immutable event published by the facade after a move is played, undone or redone. It tells what
+ * changed on the board: the cells whose tiles were removed or put back, the columns that were dropped or put back,
+ * which columns of the board now look different, the score and how much it changed, and the new state of the game.
+ * A new or loaded board is published as a reset event, see {@link #isReset()}, where every column changed.
+ * <p>
+ * Events that follow each other can be coalesced with {@link #merge(GameEvent)} by observers that only need to know
+ * what changed since they last looked. A coalesced event keeps the columns changed by every event, the total score
+ * change and the last state, but the cells and columns of each move are not kept.
+ *
+ * @author Nathan Furnal
+ */
+public final class GameEvent {
+    private static final int[] NONE = new int[0];
+    private final long version;
+    private final State state;
+    private final long score;
+    private final long scoreDelta;
+    private final int[] cells;
+    private final int[] columns;
+    private final BitSet changed;
+    private final int count;
+    private final boolean reset;
+
+    private GameEvent(long version, State state, long score, long scoreDelta, int[] cells, int[] columns,
+                      BitSet changed, int count, boolean reset) {
+        this.version = version;
+        this.state = state;
+        this.score = score;
+        this.scoreDelta = scoreDelta;
+        this.cells = cells;
+        this.columns = columns;
+        this.changed = changed;
+        this.count = count;
+        this.reset = reset;
+    }
+
+    /**
+     * Creates the event of a move played, undone or redone.
+     *
+     * @param version the version of the board after the change.
+     * @param state   the state of the game after the change.
+     * @param field   the field, after the change.
+     * @param move    the move.
+     * @param undone  true if the move was undone and false if it was played.
+     * @return the event.
+     */
+    static GameEvent of(long version, State state, Field field, Move move, boolean undone) {
+        BitSet changed = new BitSet(field.getNCols());
+        if (move.before() != null) {
+            // Tiles set by hand may have moved anywhere.
+            changed.set(0, field.getNCols());
+        } else {
+            for (int cell : move.removed()) {
+                changed.set(cell / field.getNRows());
+            }
+            // Dropping or putting back a column moves every column on its right.
+            if (move.dropped().length > 0) {
+                changed.set(move.dropped()[0], field.getNCols());
+            }
+        }
+        return new GameEvent(version, state, field.getScore(), undone ? -move.getScore() : move.getScore(),
+                move.removed(), move.dropped(), changed, 1, false);
+    }
+
+    /**
+     * Creates the event of a board replaced by a new or loaded one.
+     *
+     * @param version the version of the new board.
+     * @param state   the state of the game on the new board.
+     * @param field   the new field.
+     * @return the event.
+     */
+    static GameEvent reset(long version, State state, Field field) {
+        BitSet changed = new BitSet(field.getNCols());
+        changed.set(0, field.getNCols());
+        return new GameEvent(version, state, field.getScore(), 0, NONE, NONE, changed, 1, true);
+    }
+
+    /**
+     * Coalesces this event with the event that followed it.
+     *
+     * @param next the next event.
+     * @return an event telling what both events changed together.
+     */
+    public GameEvent merge(GameEvent next) {
+        if (next == null) {
+            throw new IllegalArgumentException("Can't merge with a null event.");
+        }
+        if (next.reset) {
+            // Nothing from before is left on the new board.
+            return new GameEvent(next.version, next.state, next.score, 0, NONE, NONE, next.changed, count + next.count,
+                    true);
+        }
+        BitSet both = (BitSet) changed.clone();
+        both.or(next.changed);
+        return new GameEvent(next.version, next.state, next.score, scoreDelta + next.scoreDelta, NONE, NONE, both,
+                count + next.count, reset);
+    }
+
+    /**
+     * Gets the version of the board after the change, which grows by one with every move played, undone or redone
+     * and every board replaced.
+     *
+     * @return the version of the board.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the state of the game after the change.
+     *
+     * @return the state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the score after the change.
+     *
+     * @return the score.
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * Gets how much the score changed, negative when a move was undone. For a reset event, the change since the board was
+     * replaced.
+     *
+     * @return the score change.
+     */
+    public long getScoreDelta() {
+        return scoreDelta;
+    }
+
+    /**
+     * Gets the cells whose tiles were removed, or put back when the move was undone, as numbered while the tiles are
+     * on the board. Empty for a coalesced event.
+     *
+     * @return a copy of the cells, sorted.
+     */
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * Gets the columns that were dropped, or put back when the move was undone, as numbered while they hold tiles.
+     * Empty for a coalesced event.
+     *
+     * @return a copy of the columns, sorted.
+     */
+    public int[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Checks if a column of the board looks different after the change.
+     *
+     * @param col the column.
+     * @return true if the column changed and false otherwise.
+     */
+    public boolean isColumnChanged(int col) {
+        return changed.get(col);
+    }
+
+    /**
+     * Gets the columns of the board that look different after the change.
+     *
+     * @return the changed columns, sorted.
+     */
+    public int[] getChangedColumns() {
+        return changed.stream().toArray();
+    }
+
+    /**
+     * Checks if the board was replaced by a new or loaded one, in which case the board may have another size and every
+     * column changed. A coalesced event is a reset if any of its events was.
+     *
+     * @return true if the board was replaced and false otherwise.
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * Gets the number of events coalesced into this one.
+     *
+     * @return the number of events, 1 for an event that was not coalesced.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "GameEvent{version=" + version + ", state=" + state + ", score=" + score + ", scoreDelta=" +
+                scoreDelta + ", changed=" + changed + ", count=" + count + ", reset=" + reset + '}';
+    }
+}
@@ -0,0 +1,99 @@
+package g55803.samegame.model;
+
+/**
+ * Provides a group of similarly colored tiles that can be played. A group is represented by its first cell in index
+ * order, playing any of its cells plays the whole group.
+ *
+ * @author Nathan Furnal
+ */
+public class Group {
+    private final int cell;
+    private final Position position;
+    private final int size;
+    private final Color color;
+
+    /**
+     * Creates a group from its representative cell, its size and its color.
+     *
+     * @param cell     the index of the representative cell.
+     * @param position the position of the representative cell.
+     * @param size     the number of tiles in the group.
+     * @param color    the color of the group.
+     */
+    Group(int cell, Position position, int size, Color color) {
+        this.cell = cell;
+        this.position = position;
+        this.size = size;
+        this.color = color;
+    }
+
+    /**
+     * Gets the index of the representative cell, to be played with {@link Field#play(int)}.
+     *
+     * @return the index of the representative cell.
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    /**
+     * Gets the position of the representative cell.
+     *
+     * @return the position of the representative cell.
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the number of tiles in the group.
+     *
+     * @return the size of the group.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the color of the group.
+     *
+     * @return the color of the group.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Gets the score earned by playing the group.
+     *
+     * @return the score of the group.
+     */
+    public long getScore() {
+        return (long) size * (size - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Group group = (Group) o;
+
+        if (cell != group.getCell()) return false;
+        if (size != group.getSize()) return false;
+        return color == group.getColor();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cell;
+        result = 31 * result + size;
+        result = 31 * result + color.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return color + " x" + size + " at " + position;
+    }
+}
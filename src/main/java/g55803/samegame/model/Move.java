@@ -0,0 +1,119 @@
+package g55803.samegame.model;
+
+/**
+ * Provides the record of a move played on a field. It only holds what the move changed: the removed cells and their
+ * color, the columns that were emptied and dropped, and the score earned. This is enough to cancel the move on the
+ * field it was played on, as long as no other move was played since.
+ *
+ * @author Nathan Furnal
+ */
+public final class Move {
+    private final int[] removed;
+    private final byte color;
+    private final int[] dropped;
+    private final long score;
+    private final int activeCols;
+    private final int shiftFrom;
+    private final byte[] before;
+
+    /**
+     * Creates a move record.
+     *
+     * @param removed    the indices of the removed cells, sorted.
+     * @param color      the color of the removed cells, as stored in the field.
+     * @param dropped    the columns that were emptied by the move then dropped, sorted.
+     * @param score      the score earned by the move.
+     * @param activeCols the number of columns holding tiles before the move.
+     * @param shiftFrom  the left-most column that may have been empty before the move.
+     * @param before     a full copy of the cells before the move when tiles were set by hand on the field, since
+     *                   they may float or leave empty columns anywhere. <code>null</code> otherwise.
+     */
+    Move(int[] removed, byte color, int[] dropped, long score, int activeCols, int shiftFrom, byte[] before) {
+        this.removed = removed;
+        this.color = color;
+        this.dropped = dropped;
+        this.score = score;
+        this.activeCols = activeCols;
+        this.shiftFrom = shiftFrom;
+        this.before = before;
+    }
+
+    /**
+     * Gets the number of tiles removed by the move.
+     *
+     * @return the number of removed tiles, 0 if nothing was played.
+     */
+    public int getSize() {
+        return removed.length;
+    }
+
+    /**
+     * Gets the first removed cell in index order, which is the representative cell of the group the move played. Playing
+     * this cell on the field as it was before the move plays the same move again.
+     *
+     * @return the first removed cell, -1 if nothing was played.
+     */
+    public int getCell() {
+        return removed.length == 0 ? -1 : removed[0];
+    }
+
+    /**
+     * Gets the color of the tiles removed by the move.
+     *
+     * @return the color of the removed tiles or <code>null</code> if nothing was played.
+     */
+    public Color getColor() {
+        return color == 0 ? null : Color.values()[color - 1];
+    }
+
+    /**
+     * Gets the score earned by the move.
+     *
+     * @return the score earned by the move.
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the indices of the cells removed by the move, as they were before the move.
+     *
+     * @return a copy of the removed cells indices, sorted.
+     */
+    public int[] getRemoved() {
+        return removed.clone();
+    }
+
+    /**
+     * Gets the columns emptied by the move, as they were numbered before the move.
+     *
+     * @return a copy of the dropped columns, sorted.
+     */
+    public int[] getDropped() {
+        return dropped.clone();
+    }
+
+    int[] removed() {
+        return removed;
+    }
+
+    byte color() {
+        return color;
+    }
+
+    int[] dropped() {
+        return dropped;
+    }
+
+    int activeCols() {
+        return activeCols;
+    }
+
+    int shiftFrom() {
+        return shiftFrom;
+    }
+
+    byte[] before() {
+        return before;
+    }
+}
@@ -1,7 +1,7 @@
 package g55803.samegame.model;
 
 /**
- * Provides states to use in the Observer pattern.
+ * Provides the states of a game, carried by the events of the facade.
  *
  * @author Nathan Furnal
  */
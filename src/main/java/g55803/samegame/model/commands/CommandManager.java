@@ -1,7 +1,10 @@
 package g55803.samegame.model.commands;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 
 /**
  * @author Nathan Furnal
@@ -15,26 +18,46 @@ public class CommandManager {
         this.redoHistory = new LinkedList<>();
     }
 
+    /**
+     * Executes a command and keeps it to be undone. A command that fails is not kept, so the history is left as it
+     * was.
+     *
+     * @param action the command.
+     */
     public void execute(Command action) {
+        action.execute();
         undoHistory.addFirst(action);
         redoHistory.clear();
-        action.execute();
     }
 
-    public void undo() {
+    /**
+     * Cancels the most recent command.
+     *
+     * @return the command cancelled, <code>null</code> if there was none.
+     */
+    public Command undo() {
         if (!undoHistory.isEmpty()) {
             Command action = undoHistory.pop();
             action.cancel();
             redoHistory.addFirst(action);
+            return action;
         }
+        return null;
     }
 
-    public void redo() {
+    /**
+     * Executes again the most recently cancelled command.
+     *
+     * @return the command executed, <code>null</code> if there was none.
+     */
+    public Command redo() {
         if (!redoHistory.isEmpty()) {
             Command action = redoHistory.pop();
             action.execute();
             undoHistory.addFirst(action);
+            return action;
         }
+        return null;
     }
 
     public boolean isEmptyUndo() {
@@ -44,4 +67,23 @@ public class CommandManager {
     public boolean isEmptyRedo() {
         return redoHistory.isEmpty();
     }
+
+    /**
+     * Forgets every command, to start a new game.
+     */
+    public void clear() {
+        undoHistory.clear();
+        redoHistory.clear();
+    }
+
+    /**
+     * Gets the commands that were executed and not undone, from the oldest to the most recent.
+     *
+     * @return a copy of the history.
+     */
+    public List<Command> getHistory() {
+        List<Command> history = new ArrayList<>(undoHistory);
+        Collections.reverse(history);
+        return history;
+    }
 }
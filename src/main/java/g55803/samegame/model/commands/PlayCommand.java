@@ -1,17 +1,19 @@
 package g55803.samegame.model.commands;
 
 import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
 import g55803.samegame.model.Position;
 
 /**
- * Provides a command for when a move is played at a given position. Implements the command design pattern.
+ * Provides a command for when a move is played at a given position. Implements the command design pattern. The command
+ * only keeps what the move changed on the field, which is enough to cancel it.
  *
  * @author Nathan Furnal
  */
 public class PlayCommand implements Command {
     private final Field receiver;
     private final Position arg;
-    private Field inMemoryField;
+    private Move move;
 
     /**
      * Creates a command with a given model and the necessary arguments for the command to be used.
@@ -30,25 +32,25 @@ public class PlayCommand implements Command {
         this.arg = arg;
     }
 
+    /**
+     * Gets the move the command played.
+     *
+     * @return the move played by the last execution, <code>null</code> if the command was never executed.
+     */
+    public Move getMove() {
+        return move;
+    }
+
     @Override
     public void execute() {
-        // Constructor copy and then storing it in memory
-        inMemoryField = new Field(receiver);
-        receiver.play(arg);
+        move = receiver.play(arg);
     }
 
     @Override
     public void cancel() {
-        if (inMemoryField == null) {
+        if (move == null) {
             throw new IllegalArgumentException("The execute command should be used before the cancel command.");
         }
-        // Going back to the stored copy and extract its attributes into the receiver
-        receiver.setScore(inMemoryField.getScore());
-        for (int i = 0; i < receiver.getNRows(); i++) {
-            for (int j = 0; j < receiver.getNCols(); j++) {
-                Position p = new Position(i, j);
-                receiver.setTile(p, inMemoryField.getTile(p));
-            }
-        }
+        receiver.undo(move);
     }
 }
@@ -0,0 +1,230 @@
+package g55803.samegame.model.record;
+
+import g55803.samegame.model.Color;
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
+
+/**
+ * Provides the record of a game: the starting board and the moves played on it. The board is kept as its seed when it
+ * was drawn from one, and as the colors of its cells otherwise. Moves are kept as the representative cell of the group
+ * they played, see {@link Field#legalMoves()}.
+ *
+ * @author Nathan Furnal
+ */
+public final class GameRecord {
+    private final int nRows;
+    private final int nCols;
+    private final int nColors;
+    private final long startScore;
+    private final long seed;
+    private final byte[] cells;
+    private final int[] moves;
+
+    /**
+     * Creates a record.
+     *
+     * @param nRows      the number of rows of the board.
+     * @param nCols      the number of columns of the board.
+     * @param nColors    the number of colors of the board.
+     * @param startScore the score of the starting board.
+     * @param seed       the seed of the starting board.
+     * @param cells      the cell values of the starting board, <code>null</code> when it is given by its seed.
+     * @param moves      the cells played.
+     */
+    GameRecord(int nRows, int nCols, int nColors, long startScore, long seed, byte[] cells, int[] moves) {
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.nColors = nColors;
+        this.startScore = startScore;
+        this.seed = seed;
+        this.cells = cells;
+        this.moves = moves;
+    }
+
+    /**
+     * Creates the record of a game from its starting board and the cells played. The board is recorded by its seed
+     * when it is still the board drawn from it.
+     *
+     * @param start the starting board, left untouched.
+     * @param moves the cells played, in order.
+     * @return the record.
+     */
+    public static GameRecord of(Field start, int[] moves) {
+        if (start == null || moves == null) {
+            throw new IllegalArgumentException("The starting board and the moves of a record can't be null.");
+        }
+        Field seeded = Field.fromSeed(start.getNRows(), start.getNCols(), start.getNColors(), start.getSeed());
+        seeded.setScore(start.getScore());
+        byte[] cells = null;
+        if (!seeded.equals(start)) {
+            cells = new byte[start.getNCells()];
+            for (int i = 0; i < cells.length; i++) {
+                Color c = start.getColor(i);
+                cells[i] = c == null ? 0 : (byte) (c.ordinal() + 1);
+            }
+        }
+        return new GameRecord(start.getNRows(), start.getNCols(), start.getNColors(), start.getScore(),
+                start.getSeed(), cells, moves.clone());
+    }
+
+    /**
+     * Creates the record of a game from its starting board and the moves played.
+     *
+     * @param start the starting board, left untouched.
+     * @param moves the moves played, in order.
+     * @return the record.
+     */
+    public static GameRecord of(Field start, Iterable<Move> moves) {
+        if (moves == null) {
+            throw new IllegalArgumentException("The moves of a record can't be null.");
+        }
+        int n = 0;
+        for (Move ignored : moves) {
+            n++;
+        }
+        int[] cells = new int[n];
+        int k = 0;
+        for (Move m : moves) {
+            cells[k++] = m.getCell();
+        }
+        return of(start, cells);
+    }
+
+    /**
+     * Creates the starting board of the game.
+     *
+     * @return a new field holding the starting board.
+     */
+    public Field start() {
+        Field f;
+        if (cells == null) {
+            f = Field.fromSeed(nRows, nCols, nColors, seed);
+        } else {
+            Color[] colors = new Color[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                colors[i] = cells[i] == 0 ? null : Color.values()[cells[i] - 1];
+            }
+            f = Field.fromColors(nRows, nCols, nColors, colors);
+        }
+        f.setScore(startScore);
+        return f;
+    }
+
+    /**
+     * Replays the game from its starting board.
+     *
+     * @return a new field holding the board after the last move.
+     */
+    public Field replay() {
+        Field f = start();
+        replay(f, moves.length);
+        return f;
+    }
+
+    /**
+     * Replays the first moves of the game on a field, which must hold the starting board.
+     *
+     * @param f     the field to play on.
+     * @param count the number of moves to replay.
+     */
+    public void replay(Field f, int count) {
+        if (count < 0 || count > moves.length) {
+            throw new IllegalArgumentException("There are " + moves.length + " moves to replay, received : " + count);
+        }
+        for (int k = 0; k < count; k++) {
+            if (f.play(moves[k]).getSize() == 0) {
+                throw new IllegalArgumentException("The move " + k + " at cell " + moves[k] + " can't be played.");
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rows of the board.
+     *
+     * @return the number of rows.
+     */
+    public int getNRows() {
+        return nRows;
+    }
+
+    /**
+     * Gets the number of columns of the board.
+     *
+     * @return the number of columns.
+     */
+    public int getNCols() {
+        return nCols;
+    }
+
+    /**
+     * Gets the number of colors of the board.
+     *
+     * @return the number of colors.
+     */
+    public int getNColors() {
+        return nColors;
+    }
+
+    /**
+     * Gets the score of the starting board.
+     *
+     * @return the starting score.
+     */
+    public long getStartScore() {
+        return startScore;
+    }
+
+    /**
+     * Checks if the starting board is recorded by its seed.
+     *
+     * @return true if the board is given by its seed and false if it is given by its cells.
+     */
+    public boolean isSeeded() {
+        return cells == null;
+    }
+
+    /**
+     * Gets the seed of the starting board. It is only meaningful when the board is recorded by its seed.
+     *
+     * @return the seed of the board.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the cell values of the starting board, 0 for an empty cell and the ordinal of the color plus one otherwise.
+     *
+     * @return the cell values, not copied, <code>null</code> when the board is recorded by its seed.
+     */
+    byte[] cells() {
+        return cells;
+    }
+
+    /**
+     * Gets the number of moves of the game.
+     *
+     * @return the number of moves.
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * Gets the cells played, in order.
+     *
+     * @return a copy of the cells played.
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Gets the cells played without copying them.
+     *
+     * @return the cells played.
+     */
+    int[] moves() {
+        return moves;
+    }
+}
@@ -0,0 +1,26 @@
+package g55803.samegame.model.record;
+
+/**
+ * Provides the constants of the binary record format. A stream holds records one after the other, each laid out as:
+ * <ul>
+ *     <li>the magic bytes <code>SGR</code> and the version of the format, one byte;</li>
+ *     <li>a flags byte, whose lowest bit tells that the board is given by its cells rather than by its seed;</li>
+ *     <li>the number of rows, columns and colors and the starting score, as varints;</li>
+ *     <li>either the seed, 8 bytes big-endian, or the cell values packed two per byte, the first cell in the low
+ *     nibble;</li>
+ *     <li>every move as the varint of its cell plus one, then a 0 closing the record.</li>
+ * </ul>
+ * Varints are unsigned LEB128: 7 bits per byte, lowest bits first, the high bit telling that more bytes follow. A move
+ * on a board of fewer than 16384 cells takes at most two bytes.
+ *
+ * @author Nathan Furnal
+ */
+final class RecordFormat {
+    static final byte[] MAGIC = {'S', 'G', 'R'};
+    static final int VERSION = 1;
+    static final int FLAG_CELLS = 1;
+    static final int END = 0;
+
+    private RecordFormat() {
+    }
+}
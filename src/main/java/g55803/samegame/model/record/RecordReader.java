@@ -0,0 +1,150 @@
+package g55803.samegame.model.record;
+
+import g55803.samegame.model.Color;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Provides a streaming reader of game records, see {@link RecordFormat} for the layout. Records are read one at a time,
+ * so a stream of any length can be scanned with a bounded amount of memory.
+ *
+ * @author Nathan Furnal
+ */
+public class RecordReader implements Closeable {
+    private final InputStream in;
+    private int[] moves = new int[64];
+
+    /**
+     * Creates a reader on a stream, the stream is buffered by the reader.
+     *
+     * @param in the stream to read from.
+     */
+    public RecordReader(InputStream in) {
+        if (in == null) {
+            throw new IllegalArgumentException("The stream of a record reader can't be null.");
+        }
+        this.in = new BufferedInputStream(in);
+    }
+
+    /**
+     * Reads the next record of the stream.
+     *
+     * @return the record, or <code>null</code> if the stream is over.
+     * @throws IOException if the stream fails or does not hold a valid record.
+     */
+    public GameRecord read() throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        if (first != RecordFormat.MAGIC[0] || readByte() != RecordFormat.MAGIC[1]
+                || readByte() != RecordFormat.MAGIC[2]) {
+            throw new IOException("This is not a game record.");
+        }
+        int version = readByte();
+        if (version != RecordFormat.VERSION) {
+            throw new IOException("Unsupported record version : " + version);
+        }
+        int flags = readByte();
+        int nRows = readInt();
+        int nCols = readInt();
+        int nColors = readInt();
+        long startScore = readVarint();
+        long nCells = (long) nRows * nCols;
+        if (nCells > Integer.MAX_VALUE) {
+            throw new IOException("The board of the record is too large : " + nRows + " x " + nCols);
+        }
+        if (nColors < 2 || nColors > Color.values().length) {
+            throw new IOException("The number of colors of the record is out of range : " + nColors);
+        }
+        long seed = 0;
+        byte[] cells = null;
+        if ((flags & RecordFormat.FLAG_CELLS) == 0) {
+            for (int k = 0; k < 8; k++) {
+                seed = seed << 8 | readByte();
+            }
+        } else {
+            cells = new byte[(int) nCells];
+            for (int i = 0; i < cells.length; i += 2) {
+                int b = readByte();
+                int low = b & 0xF;
+                int high = b >>> 4;
+                if (low > nColors || (i + 1 < cells.length && high > nColors)) {
+                    throw new IOException("The color of cell " + i + " of the record is out of range : " + b);
+                }
+                cells[i] = (byte) low;
+                if (i + 1 < cells.length) {
+                    cells[i + 1] = (byte) high;
+                }
+            }
+        }
+        int n = 0;
+        long value;
+        while ((value = readVarint()) != RecordFormat.END) {
+            if (value > nCells) {
+                throw new IOException("The move " + n + " is out of the board : " + (value - 1));
+            }
+            if (n == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * n);
+            }
+            moves[n++] = (int) (value - 1);
+        }
+        return new GameRecord(nRows, nCols, nColors, startScore, seed, cells, Arrays.copyOf(moves, n));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads a byte that must be there.
+     *
+     * @return the byte, from 0 to 255.
+     * @throws IOException if the stream fails or is over.
+     */
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("The record is truncated.");
+        }
+        return b;
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @return the value.
+     * @throws IOException if the stream fails, is over or the varint is longer than 64 bits.
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("The record holds a malformed varint.");
+    }
+
+    /**
+     * Reads a varint that must fit in an int.
+     *
+     * @return the value.
+     * @throws IOException if the stream fails, is over or the value is too large.
+     */
+    private int readInt() throws IOException {
+        long value = readVarint();
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("The record holds a value out of range : " + value);
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,153 @@
+package g55803.samegame.model.record;
+
+import g55803.samegame.model.Field;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Provides a streaming writer of game records, see {@link RecordFormat} for the layout. A record can be written at
+ * once, or move by move while the game is played: the header is written by {@link #begin(Field)}, every move by
+ * {@link #move(int)} and the record is closed by {@link #end()}. Any number of records can follow each other.
+ *
+ * @author Nathan Furnal
+ */
+public class RecordWriter implements Closeable, Flushable {
+    private final OutputStream out;
+    private boolean inRecord;
+
+    /**
+     * Creates a writer on a stream, the stream is buffered by the writer.
+     *
+     * @param out the stream to write to.
+     */
+    public RecordWriter(OutputStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("The stream of a record writer can't be null.");
+        }
+        this.out = new BufferedOutputStream(out);
+    }
+
+    /**
+     * Writes a whole record.
+     *
+     * @param record the record to write.
+     * @throws IOException if the stream fails.
+     */
+    public void write(GameRecord record) throws IOException {
+        if (record == null) {
+            throw new IllegalArgumentException("Can't write a null record.");
+        }
+        header(record);
+        for (int cell : record.moves()) {
+            move(cell);
+        }
+        end();
+    }
+
+    /**
+     * Starts a record by writing its starting board.
+     *
+     * @param start the starting board, left untouched.
+     * @throws IOException if the stream fails.
+     */
+    public void begin(Field start) throws IOException {
+        header(GameRecord.of(start, new int[0]));
+    }
+
+    /**
+     * Writes the next move of the record.
+     *
+     * @param cell the cell played.
+     * @throws IOException if the stream fails.
+     */
+    public void move(int cell) throws IOException {
+        if (!inRecord) {
+            throw new IllegalStateException("A record should be started before writing moves.");
+        }
+        if (cell < 0) {
+            throw new IllegalArgumentException("The cell of a move can't be negative, received : " + cell);
+        }
+        writeVarint(cell + 1L);
+    }
+
+    /**
+     * Closes the current record.
+     *
+     * @throws IOException if the stream fails.
+     */
+    public void end() throws IOException {
+        if (!inRecord) {
+            throw new IllegalStateException("There is no record to end.");
+        }
+        out.write(RecordFormat.END);
+        inRecord = false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the current record if there is one, then the stream.
+     *
+     * @throws IOException if the stream fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (inRecord) {
+            end();
+        }
+        out.close();
+    }
+
+    /**
+     * Writes the header of a record: magic bytes, version, flags, dimensions, starting score and board.
+     *
+     * @param record the record.
+     * @throws IOException if the stream fails.
+     */
+    private void header(GameRecord record) throws IOException {
+        if (inRecord) {
+            throw new IllegalStateException("The current record should be ended before starting another one.");
+        }
+        out.write(RecordFormat.MAGIC);
+        out.write(RecordFormat.VERSION);
+        out.write(record.isSeeded() ? 0 : RecordFormat.FLAG_CELLS);
+        writeVarint(record.getNRows());
+        writeVarint(record.getNCols());
+        writeVarint(record.getNColors());
+        writeVarint(record.getStartScore());
+        if (record.isSeeded()) {
+            long seed = record.getSeed();
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (seed >>> shift));
+            }
+        } else {
+            byte[] cells = record.cells();
+            for (int i = 0; i < cells.length; i += 2) {
+                int high = i + 1 < cells.length ? cells[i + 1] : 0;
+                out.write(cells[i] | high << 4);
+            }
+        }
+        inRecord = true;
+    }
+
+    /**
+     * Writes a non-negative value as an unsigned LEB128 varint.
+     *
+     * @param value the value.
+     * @throws IOException if the stream fails.
+     */
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,247 @@
+package g55803.samegame.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides a server hosting many games at once over a local TCP or Unix domain socket. Games are played with the line
+ * protocol of {@link Session} and kept in a {@link SessionRegistry}, so that a game can be resumed from another
+ * connection. Games left idle for {@link #IDLE} are evicted to their record, and removed after {@link #EXPIRY}.
+ * <p>
+ * Every connection is served by its own thread, blocked on its socket between requests. Virtual threads are used when
+ * the Java runtime has them, so that thousands of idle connections only cost their session; older runtimes fall back
+ * to a cached pool of platform threads. Besides its game, a connection only holds a buffer of {@value #LINE_MAX} bytes.
+ *
+ * @author Nathan Furnal
+ */
+public class GameServer implements Closeable {
+    /**
+     * The longest request accepted, in bytes.
+     */
+    static final int LINE_MAX = 256;
+    /**
+     * The idle time after which a game is evicted to its record.
+     */
+    public static final Duration IDLE = Duration.ofMinutes(1);
+    /**
+     * The idle time after which a game is removed.
+     */
+    public static final Duration EXPIRY = Duration.ofDays(1);
+    private final ServerSocketChannel server;
+    private final Path socketFile;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService janitor;
+    private final SessionRegistry registry = new SessionRegistry();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private GameServer(ServerSocketChannel server, Path socketFile) {
+        this.server = server;
+        this.socketFile = socketFile;
+        this.executor = newExecutor();
+        this.janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "samegame-eviction");
+            t.setDaemon(true);
+            return t;
+        });
+        janitor.scheduleWithFixedDelay(() -> {
+            registry.evictIdle(IDLE);
+            registry.expire(EXPIRY);
+        }, IDLE.toSeconds(), IDLE.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a server on a TCP port of the loopback interface.
+     *
+     * @param port the port, 0 for any free port.
+     * @return the server, not serving yet.
+     * @throws IOException if the port can't be bound.
+     */
+    public static GameServer tcp(int port) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new GameServer(server, null);
+    }
+
+    /**
+     * Opens a server on a Unix domain socket, the socket file is deleted when the server is closed.
+     *
+     * @param path the path of the socket file, which must not exist.
+     * @return the server, not serving yet.
+     * @throws IOException if the socket can't be bound.
+     */
+    public static GameServer unix(Path path) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new GameServer(server, path);
+    }
+
+    /**
+     * Creates the executor serving the connections, with a virtual thread per connection when the runtime has them.
+     *
+     * @return the executor.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return the address of the server.
+     * @throws IOException if the server is closed.
+     */
+    public SocketAddress getAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Gets the games hosted by the server.
+     *
+     * @return the registry of the games.
+     */
+    public SessionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Gets the number of connections being served.
+     *
+     * @return the number of connections.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Accepts connections until the server is closed. Each connection is served on its own thread.
+     *
+     * @throws IOException if accepting fails for another reason than the server being closed.
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            executor.execute(() -> session(channel));
+        }
+    }
+
+    /**
+     * Accepts connections on a thread of its own until the server is closed.
+     */
+    public void start() {
+        Thread acceptor = new Thread(() -> {
+            try {
+                serve();
+            } catch (IOException e) {
+                System.err.println("The server stopped accepting connections : " + e.getMessage());
+            }
+        }, "samegame-server");
+        acceptor.start();
+    }
+
+    /**
+     * Serves a connection until the client quits or leaves. Requests are read into a fixed buffer and answered in
+     * order, a request longer than the buffer ends the connection.
+     *
+     * @param channel the connection.
+     */
+    private void session(SocketChannel channel) {
+        connections.incrementAndGet();
+        Session session = new Session(registry);
+        try (channel) {
+            ByteBuffer in = ByteBuffer.allocate(LINE_MAX);
+            while (!session.isOver() && channel.read(in) >= 0) {
+                int start = 0;
+                for (int i = 0; i < in.position() && !session.isOver(); i++) {
+                    if (in.get(i) == '\n') {
+                        int end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+                        String line = new String(in.array(), start, end - start, StandardCharsets.US_ASCII);
+                        write(channel, session.handle(line));
+                        RuntimeException failure = session.takeFailure();
+                        if (failure != null) {
+                            System.err.println("The request " + line + " failed :");
+                            failure.printStackTrace();
+                        }
+                        start = i + 1;
+                    }
+                }
+                in.limit(in.position()).position(start);
+                in.compact();
+                if (!in.hasRemaining()) {
+                    write(channel, "ERR The request is longer than " + LINE_MAX + " bytes.");
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client left, its game stays in the registry until it expires if its token was handed out.
+        } catch (RuntimeException e) {
+            System.err.println("A connection ended on an error : " + e);
+        } finally {
+            session.close();
+            connections.decrementAndGet();
+        }
+    }
+
+    private static void write(SocketChannel channel, String answer) throws IOException {
+        ByteBuffer out = ByteBuffer.wrap((answer + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    /**
+     * Stops accepting connections and ends every session.
+     *
+     * @throws IOException if the socket can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            server.close();
+            executor.shutdownNow();
+            janitor.shutdownNow();
+        } finally {
+            if (socketFile != null) {
+                Files.deleteIfExists(socketFile);
+            }
+        }
+    }
+}
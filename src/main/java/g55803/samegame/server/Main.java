@@ -0,0 +1,31 @@
+package g55803.samegame.server;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Runs the game server, without any user interface. The server listens on a TCP port of the loopback interface, or on
+ * a Unix domain socket when a path is given, see {@link Session} for the protocol.
+ * <p>
+ * Usage: <code>Main [port | socket]</code>
+ *
+ * @author Nathan Furnal
+ */
+public class Main {
+    private static final int DEFAULT_PORT = 7878;
+
+    public static void main(String[] args) throws IOException {
+        String where = args.length > 0 ? args[0] : String.valueOf(DEFAULT_PORT);
+        GameServer server = where.matches("\\d+") ? GameServer.tcp(Integer.parseInt(where))
+                : GameServer.unix(Paths.get(where));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("The server could not be closed : " + e.getMessage());
+            }
+        }));
+        System.out.println("Serving games on " + server.getAddress());
+        server.serve();
+    }
+}
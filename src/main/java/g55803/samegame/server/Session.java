@@ -0,0 +1,246 @@
+package g55803.samegame.server;
+
+import g55803.samegame.model.Facade;
+import g55803.samegame.model.Position;
+import g55803.samegame.model.State;
+import g55803.samegame.model.Tile;
+
+import java.util.Locale;
+
+/**
+ * Provides the line protocol of one connection to the server. A connection gets a new game of its own in the registry
+ * of the server with its first request on a game, and can switch to another one, for instance to resume a game after
+ * reconnecting. A game whose token was never handed out is removed with its connection, since nobody can reach it
+ * anymore. Every request is a single line, a command followed by its arguments separated by spaces, and gets a single
+ * line back: <code>OK</code> followed by the results, or <code>ERR</code> followed by a message. Rows and columns are
+ * counted from 0.
+ * <ul>
+ *     <li><code>NEW rows cols colors [seed]</code> starts a new game, answers the seed of the board;</li>
+ *     <li><code>PLAY row col</code> plays the group at a position, answers the points earned, the score and the
+ *     state;</li>
+ *     <li><code>UNDO</code> and <code>REDO</code> answer the score;</li>
+ *     <li><code>STATE</code> answers the rows, the columns, the score, the state and the board row by row, one color
+ *     code or <code>.</code> per cell;</li>
+ *     <li><code>SCORE</code> answers the score;</li>
+ *     <li><code>SESSION</code> answers the token of the game, its id as 16 hexadecimal digits, which is what
+ *     another connection needs to reach the game;</li>
+ *     <li><code>RESUME token</code> leaves the current game for the game with the given token;</li>
+ *     <li><code>QUIT</code> answers <code>BYE</code>, ends the game and the connection.</li>
+ * </ul>
+ *
+ * @author Nathan Furnal
+ */
+final class Session {
+    /**
+     * The largest number of rows or columns of a game, which bounds the memory of a session.
+     */
+    static final int MAX_SIZE = 100;
+    private final SessionRegistry registry;
+    private long id;
+    private boolean hosted;
+    private boolean shared;
+    private boolean over;
+    private RuntimeException failure;
+
+    /**
+     * Creates a session, its game is only created with its first request on a game.
+     *
+     * @param registry the games of the server.
+     */
+    Session(SessionRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Handles a request.
+     *
+     * @param line the request, without its line break.
+     * @return the answer, without its line break.
+     */
+    String handle(String line) {
+        String[] args = line.strip().split(" +");
+        try {
+            return switch (args[0].toUpperCase(Locale.ROOT)) {
+                case "SESSION" -> {
+                    String token = SessionRegistry.token(game());
+                    shared = true;
+                    yield "OK " + token;
+                }
+                case "RESUME" -> resume(args);
+                case "QUIT" -> {
+                    if (hosted) {
+                        registry.remove(id);
+                        hosted = false;
+                    }
+                    over = true;
+                    yield "BYE";
+                }
+                default -> registry.apply(game(), game -> dispatch(game, args));
+            };
+        } catch (NumberFormatException e) {
+            return "ERR Please enter valid numbers.";
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "ERR " + e.getMessage();
+        } catch (RuntimeException e) {
+            failure = e;
+            return "ERR The request failed on the server.";
+        }
+    }
+
+    /**
+     * Gets the unexpected error of the last request, if any, and forgets it.
+     *
+     * @return the error or <code>null</code> if the last request did not fail unexpectedly.
+     */
+    RuntimeException takeFailure() {
+        RuntimeException e = failure;
+        failure = null;
+        return e;
+    }
+
+    /**
+     * Ends the session once its connection is closed. Its game is removed unless its token was handed out.
+     */
+    void close() {
+        if (hosted && !shared) {
+            registry.remove(id);
+        }
+        hosted = false;
+    }
+
+    /**
+     * Gets the id of the game of the session, creating the game on the first request that needs it.
+     *
+     * @return the id of the game.
+     */
+    private long game() {
+        if (!hosted) {
+            id = registry.create();
+            hosted = true;
+        }
+        return id;
+    }
+
+    /**
+     * Checks if the client asked to end the session.
+     *
+     * @return true if the session is over and false otherwise.
+     */
+    boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Handles a request on the game of the session.
+     *
+     * @param game the game, locked by the registry.
+     * @param args the request.
+     * @return the answer.
+     */
+    private static String dispatch(Facade game, String[] args) {
+        return switch (args[0].toUpperCase(Locale.ROOT)) {
+            case "NEW" -> newGame(game, args);
+            case "PLAY" -> playMove(game, args);
+            case "UNDO" -> undo(game);
+            case "REDO" -> redo(game);
+            case "STATE" -> "OK " + game.getNRows() + " " + game.getNCols() + " " + game.getScore() + " " +
+                    state(game) + " " + board(game);
+            case "SCORE" -> "OK " + game.getScore();
+            default -> "ERR This command is not known : " + args[0];
+        };
+    }
+
+    private String resume(String[] args) {
+        checkArgs(args, 2, 2);
+        long other = Long.parseUnsignedLong(args[1], 16);
+        if (!hosted || other != id) {
+            if (!registry.contains(other)) {
+                throw new IllegalArgumentException("There is no game with the token " + args[1] + ".");
+            }
+            if (hosted) {
+                registry.remove(id);
+            }
+            id = other;
+            hosted = true;
+        }
+        shared = true;
+        return "OK " + SessionRegistry.token(id);
+    }
+
+    private static String newGame(Facade game, String[] args) {
+        checkArgs(args, 4, 5);
+        int nRows = Integer.parseInt(args[1]);
+        int nCols = Integer.parseInt(args[2]);
+        int nColors = Integer.parseInt(args[3]);
+        if (nRows > MAX_SIZE || nCols > MAX_SIZE) {
+            throw new IllegalArgumentException("Boards can't be larger than " + MAX_SIZE + " x " + MAX_SIZE + ".");
+        }
+        if (args.length == 5) {
+            game.newField(nRows, nCols, nColors, Long.parseLong(args[4]));
+        } else {
+            game.newField(nRows, nCols, nColors);
+        }
+        return "OK " + game.getSeed();
+    }
+
+    private static String playMove(Facade game, String[] args) {
+        checkArgs(args, 3, 3);
+        Position p = new Position(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        if (p.getRow() < 0 || p.getRow() >= game.getNRows() || p.getCol() < 0 || p.getCol() >= game.getNCols()
+                || game.groupSize(p) < 2) {
+            return "ERR There is no group to play at " + p.getRow() + " " + p.getCol() + ".";
+        }
+        long before = game.getScore();
+        game.play(p);
+        return "OK " + (game.getScore() - before) + " " + game.getScore() + " " + state(game);
+    }
+
+    private static String undo(Facade game) {
+        if (game.isEmptyUndo()) {
+            return "ERR There is nothing to undo.";
+        }
+        game.undo();
+        return "OK " + game.getScore();
+    }
+
+    private static String redo(Facade game) {
+        if (game.isEmptyRedo()) {
+            return "ERR There is nothing to redo.";
+        }
+        game.redo();
+        return "OK " + game.getScore();
+    }
+
+    /**
+     * Gets the state of the game, read from the board rather than from the last notification.
+     *
+     * @param game the game.
+     * @return the state of the game.
+     */
+    private static State state(Facade game) {
+        if (game.isGameWon()) {
+            return State.WON;
+        } else if (game.isGameOver()) {
+            return State.GAME_OVER;
+        }
+        return game.isEmptyUndo() ? State.STARTED : State.PLAY;
+    }
+
+    private static String board(Facade game) {
+        StringBuilder s = new StringBuilder(game.getNRows() * game.getNCols());
+        for (int i = 0; i < game.getNRows(); i++) {
+            for (int j = 0; j < game.getNCols(); j++) {
+                Tile t = game.getTile(new Position(i, j));
+                s.append(t == null ? "." : t.getColor().code);
+            }
+        }
+        return s.toString();
+    }
+
+    private static void checkArgs(String[] args, int min, int max) {
+        if (args.length < min || args.length > max) {
+            throw new IllegalArgumentException("The command " + args[0] + " takes " +
+                    (min == max ? min - 1 : (min - 1) + " or " + (max - 1)) + " arguments.");
+        }
+    }
+}
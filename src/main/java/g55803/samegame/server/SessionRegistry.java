@@ -0,0 +1,296 @@
+package g55803.samegame.server;
+
+import g55803.samegame.model.Facade;
+import g55803.samegame.model.record.RecordReader;
+import g55803.samegame.model.record.RecordWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Provides the games hosted by the server, each with its own id, so that a game outlives its connection and can be
+ * resumed. Ids are drawn at random from a secure generator, knowing the id of a game is what gives access to it. The
+ * index of the games is a concurrent map, whose bins are locked separately, and every game has its own lock: a move
+ * only waits for other requests on the same game, never for another game. The number of games is capped, so that a
+ * client opening connections in a loop can't take all the memory of the server.
+ * <p>
+ * A game left idle for long enough is evicted: its facade is dropped and only its record is kept, a few bytes per move
+ * (see {@link g55803.samegame.model.record.GameRecord}). The game is replayed from the record the next time it is used,
+ * with the same board, score and undo history. Redo history is not kept by eviction.
+ *
+ * @author Nathan Furnal
+ */
+public class SessionRegistry {
+    /**
+     * The default largest number of games hosted at once.
+     */
+    public static final int MAX_GAMES = 100_000;
+    private final ConcurrentHashMap<Long, Entry> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final int maxGames;
+
+    /**
+     * Creates a registry hosting at most a given number of games.
+     *
+     * @param maxGames the largest number of games hosted at once.
+     */
+    public SessionRegistry(int maxGames) {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("The registry should host at least one game, received : " + maxGames);
+        }
+        this.maxGames = maxGames;
+    }
+
+    /**
+     * Creates a registry hosting at most {@value #MAX_GAMES} games.
+     */
+    public SessionRegistry() {
+        this(MAX_GAMES);
+    }
+
+    /**
+     * Creates a new game of the default size. The cap can be exceeded by the number of games created at the same time.
+     *
+     * @return the id of the game, 64 random bits that can't be guessed from the ids of other games.
+     * @throws IllegalStateException if the registry already hosts as many games as it can.
+     */
+    public long create() {
+        if (sessions.size() >= maxGames) {
+            throw new IllegalStateException("The server can't host more than " + maxGames + " games.");
+        }
+        Entry entry = new Entry(new Facade());
+        long id;
+        do {
+            id = random.nextLong();
+        } while (sessions.putIfAbsent(id, entry) != null);
+        return id;
+    }
+
+    /**
+     * Runs an action on a game, the only one running on it until it returns. An evicted game is replayed first.
+     *
+     * @param id     the id of the game.
+     * @param action the action.
+     * @param <T>    the type of the result of the action.
+     * @return the result of the action.
+     */
+    public <T> T apply(long id, Function<Facade, T> action) {
+        Entry e = sessions.get(id);
+        if (e == null) {
+            throw new IllegalArgumentException("There is no game with the token " + token(id) + ".");
+        }
+        e.lock.lock();
+        try {
+            if (e.removed) {
+                throw new IllegalArgumentException("There is no game with the token " + token(id) + ".");
+            }
+            if (e.game == null) {
+                e.game = rehydrate(e.record);
+                e.record = null;
+            }
+            e.lastUsed = System.nanoTime();
+            return action.apply(e.game);
+        } finally {
+            e.lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if a game is hosted.
+     *
+     * @param id the id of the game.
+     * @return true if the game is hosted and false otherwise.
+     */
+    public boolean contains(long id) {
+        return sessions.containsKey(id);
+    }
+
+    /**
+     * Removes a game.
+     *
+     * @param id the id of the game.
+     * @return true if the game was hosted and false otherwise.
+     */
+    public boolean remove(long id) {
+        Entry e = sessions.remove(id);
+        if (e == null) {
+            return false;
+        }
+        e.lock.lock();
+        try {
+            e.removed = true;
+            e.game = null;
+            e.record = null;
+        } finally {
+            e.lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Evicts the games left idle for at least a given time, keeping only their record. Games being played are skipped.
+     *
+     * @param idle the idle time.
+     * @return the number of games evicted.
+     */
+    public int evictIdle(Duration idle) {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Map.Entry<Long, Entry> e : sessions.entrySet()) {
+            Entry game = e.getValue();
+            // A first look without the lock, so that only the games that seem idle are locked.
+            if (game.game != null && now - game.lastUsed >= idle.toNanos() && evictIdle(e.getKey(), idle, now)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Evicts a game if it was left idle for at least a given time when the registry was scanned. The game may have
+     * been used since the scan, so it is checked again once locked.
+     *
+     * @param id   the id of the game.
+     * @param idle the idle time.
+     * @param now  the time of the scan, from {@link System#nanoTime()}.
+     * @return true if the game was evicted and false otherwise.
+     */
+    boolean evictIdle(long id, Duration idle, long now) {
+        Entry e = sessions.get(id);
+        if (e == null || !e.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (e.game == null || e.removed || now - e.lastUsed < idle.toNanos()) {
+                return false;
+            }
+            e.record = dehydrate(e.game);
+            e.game = null;
+            return true;
+        } finally {
+            e.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the games left idle for at least a given time, evicted or not. Games being played are skipped.
+     *
+     * @param idle the idle time.
+     * @return the number of games removed.
+     */
+    public int expire(Duration idle) {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Map.Entry<Long, Entry> e : sessions.entrySet()) {
+            if (now - e.getValue().lastUsed >= idle.toNanos() && expire(e.getKey(), idle, now)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes a game if it was left idle for at least a given time when the registry was scanned. The game may have
+     * been used since the scan, so it is checked again once locked.
+     *
+     * @param id   the id of the game.
+     * @param idle the idle time.
+     * @param now  the time of the scan, from {@link System#nanoTime()}.
+     * @return true if the game was removed and false otherwise.
+     */
+    boolean expire(long id, Duration idle, long now) {
+        Entry e = sessions.get(id);
+        if (e == null || !e.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (e.removed || now - e.lastUsed < idle.toNanos()) {
+                return false;
+            }
+            e.removed = true;
+            e.game = null;
+            e.record = null;
+            sessions.remove(id, e);
+            return true;
+        } finally {
+            e.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of games hosted, evicted or not.
+     *
+     * @return the number of games.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of games held as facades, that is not evicted.
+     *
+     * @return the number of live games.
+     */
+    public int liveCount() {
+        int live = 0;
+        for (Entry e : sessions.values()) {
+            if (e.game != null) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Writes the id of a game as its token, the way clients see it.
+     *
+     * @param id the id of the game.
+     * @return the id as 16 hexadecimal digits.
+     */
+    static String token(long id) {
+        return String.format("%016x", id);
+    }
+
+    private static byte[] dehydrate(Facade game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RecordWriter writer = new RecordWriter(bytes)) {
+            writer.write(game.getRecord());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Facade rehydrate(byte[] record) {
+        Facade game = new Facade();
+        try (RecordReader reader = new RecordReader(new ByteArrayInputStream(record))) {
+            game.load(reader.read());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return game;
+    }
+
+    /**
+     * A hosted game, held either as a facade or as the bytes of its record.
+     */
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Facade game;
+        private byte[] record;
+        private volatile long lastUsed = System.nanoTime();
+        private boolean removed;
+
+        Entry(Facade game) {
+            this.game = game;
+        }
+    }
+}
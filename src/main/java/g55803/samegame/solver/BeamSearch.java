@@ -0,0 +1,171 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
+import g55803.samegame.model.Position;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Provides a beam search over field states. Each layer keeps the <code>width</code> best states found by playing one
+ * more move, states being ranked by score and deduplicated by canonical hash, so that states only differing by a
+ * relabeling of colors are kept once. The search stops when no state can move anymore or when its budget of nodes or
+ * time is spent, and returns the best sequence of moves seen so far.
+ * <p>
+ * Children are first evaluated by playing and undoing the move on their parent, only the kept ones are copied. A child
+ * whose score upper bound can't beat the best score found so far is dropped right away.
+ *
+ * @author Nathan Furnal
+ */
+public class BeamSearch {
+    private final int width;
+    private final long maxNodes;
+    private final Duration timeLimit;
+
+    /**
+     * Creates a beam search with a given width and budget.
+     *
+     * @param width     the number of states kept at each layer.
+     * @param maxNodes  the maximum number of moves evaluated, use <code>Long.MAX_VALUE</code> for no limit.
+     * @param timeLimit the maximum duration of a search.
+     */
+    public BeamSearch(int width, long maxNodes, Duration timeLimit) {
+        if (width < 1) {
+            throw new IllegalArgumentException("The width of the beam should be at least 1, received : " + width);
+        }
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("The node budget should be at least 1, received : " + maxNodes);
+        }
+        if (timeLimit == null || timeLimit.isNegative() || timeLimit.isZero()) {
+            throw new IllegalArgumentException("The time limit should be a positive duration, received : " + timeLimit);
+        }
+        this.width = width;
+        this.maxNodes = maxNodes;
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Searches the best sequence of moves from a given field. The field itself is left untouched.
+     *
+     * @param start the field to search from.
+     * @return the best sequence of moves found and its score.
+     */
+    public Solution solve(Field start) {
+        if (start == null) {
+            throw new IllegalArgumentException("Can't search from a null field.");
+        }
+        long begin = System.nanoTime();
+        long limit = nanos(timeLimit);
+        long nodes = 0;
+        int[] moves = new int[start.getNCells()];
+        Node best = new Node(new Field(start), null, -1, start.getScore());
+        List<Node> beam = List.of(best);
+        while (!beam.isEmpty()) {
+            List<Candidate> candidates = new ArrayList<>();
+            search:
+            for (Node node : beam) {
+                int n = node.field.legalMoves(moves);
+                for (int k = 0; k < n; k++) {
+                    if (nodes >= maxNodes || ((nodes & 0xFF) == 0 && System.nanoTime() - begin >= limit)) {
+                        break search;
+                    }
+                    Move m = node.field.play(moves[k]);
+                    // A child that can't end above the best score found so far is never worth keeping.
+                    if (node.field.scoreUpperBound() > best.score) {
+                        candidates.add(new Candidate(node, moves[k], node.field.getScore(),
+                                node.field.canonicalHash()));
+                    }
+                    node.field.undo(m);
+                    nodes++;
+                }
+            }
+            candidates.sort(Comparator.comparingLong((Candidate c) -> c.score).reversed());
+            List<Node> next = new ArrayList<>(width);
+            Set<Long> seen = new HashSet<>();
+            for (Candidate c : candidates) {
+                if (next.size() == width) {
+                    break;
+                }
+                if (seen.add(c.hash)) {
+                    Field f = new Field(c.parent.field);
+                    f.play(c.cell);
+                    Node child = new Node(f, c.parent, c.cell, c.score);
+                    next.add(child);
+                    if (child.score > best.score) {
+                        best = child;
+                    }
+                }
+            }
+            for (Node node : beam) {
+                node.field = null; // only the path is needed from now on
+            }
+            beam = next;
+            if (nodes >= maxNodes || System.nanoTime() - begin >= limit) {
+                break;
+            }
+        }
+        return best.toSolution(start);
+    }
+
+    /**
+     * Converts a duration to nanoseconds, saturating for durations too long to fit.
+     *
+     * @param d the duration.
+     * @return the number of nanoseconds.
+     */
+    static long nanos(Duration d) {
+        try {
+            return d.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A state kept in the beam. The field is dropped once the state has been expanded, only the path is kept.
+     */
+    private static final class Node {
+        private final Node parent;
+        private final int cell;
+        private final long score;
+        private Field field;
+
+        Node(Field field, Node parent, int cell, long score) {
+            this.field = field;
+            this.parent = parent;
+            this.cell = cell;
+            this.score = score;
+        }
+
+        Solution toSolution(Field start) {
+            LinkedList<Position> moves = new LinkedList<>();
+            for (Node n = this; n.parent != null; n = n.parent) {
+                moves.addFirst(start.toPosition(n.cell));
+            }
+            return new Solution(score, moves);
+        }
+    }
+
+    /**
+     * A move evaluated on a state of the beam but not played for good yet.
+     */
+    private static final class Candidate {
+        private final Node parent;
+        private final int cell;
+        private final long score;
+        private final long hash;
+
+        Candidate(Node parent, int cell, long score, long hash) {
+            this.parent = parent;
+            this.cell = cell;
+            this.score = score;
+            this.hash = hash;
+        }
+    }
+}
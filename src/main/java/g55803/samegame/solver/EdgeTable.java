@@ -0,0 +1,123 @@
+package g55803.samegame.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Provides a lock-free table of statistics for the edges of a search tree, an edge being a move played from a state.
+ * Edges are keyed by the hash of the state and the cell of the move, and hold a number of visits and a sum of scores.
+ * The table uses open addressing with linear probing, a key is claimed with a single compare-and-set and statistics
+ * are updated with atomic additions, so threads never wait on each other.
+ *
+ * @author Nathan Furnal
+ */
+final class EdgeTable {
+    private static final int MAX_PROBES = 64;
+    private final AtomicLongArray data;
+    private final int mask;
+
+    /**
+     * Creates a table with a given number of slots.
+     *
+     * @param bits the base 2 logarithm of the number of slots.
+     */
+    EdgeTable(int bits) {
+        checkBits(bits);
+        this.data = new AtomicLongArray(3 << bits);
+        this.mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Checks that a table size is supported. Throws an exception otherwise.
+     *
+     * @param bits the base 2 logarithm of the number of slots.
+     */
+    static void checkBits(int bits) {
+        if (bits < 4 || bits > 26) {
+            throw new IllegalArgumentException("The table size should be between 2^4 and 2^26 slots, received : 2^" + bits);
+        }
+    }
+
+    /**
+     * Computes the key of an edge, keys are never 0 since 0 marks a free slot.
+     *
+     * @param hash the hash of the state.
+     * @param cell the cell of the move.
+     * @return the key of the edge.
+     */
+    static long key(long hash, int cell) {
+        long z = hash + (cell + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) | 1;
+    }
+
+    /**
+     * Finds the slot of an edge.
+     *
+     * @param key    the key of the edge.
+     * @param insert whether to claim a slot if the edge is not in the table yet.
+     * @return the slot of the edge, or -1 if it is not in the table or if the table is too full.
+     */
+    int find(long key, boolean insert) {
+        int slot = (int) key & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long k = data.get(3 * slot);
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                if (!insert) {
+                    return -1;
+                }
+                if (data.compareAndSet(3 * slot, 0, key) || data.get(3 * slot) == key) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of visits of an edge.
+     *
+     * @param slot the slot of the edge, may be -1.
+     * @return the number of visits, 0 for an edge that is not in the table.
+     */
+    long visits(int slot) {
+        return slot < 0 ? 0 : data.get(3 * slot + 1);
+    }
+
+    /**
+     * Gets the sum of the scores of an edge.
+     *
+     * @param slot the slot of the edge, may be -1.
+     * @return the sum of scores, 0 for an edge that is not in the table.
+     */
+    long scores(int slot) {
+        return slot < 0 ? 0 : data.get(3 * slot + 2);
+    }
+
+    /**
+     * Adds a visit to an edge, before its score is known.
+     *
+     * @param slot the slot of the edge, ignored if -1.
+     */
+    void addVisit(int slot) {
+        if (slot >= 0) {
+            data.incrementAndGet(3 * slot + 1);
+        }
+    }
+
+    /**
+     * Adds a score to an edge.
+     *
+     * @param slot  the slot of the edge, ignored if -1.
+     * @param score the score to add.
+     */
+    void addScore(int slot, long score) {
+        if (slot >= 0) {
+            data.addAndGet(3 * slot + 2, score);
+        }
+    }
+}
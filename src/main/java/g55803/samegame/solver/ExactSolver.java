@@ -0,0 +1,207 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
+import g55803.samegame.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides a provably optimal solver, meant for small boards (up to about 8 by 8) since the search is exponential.
+ * <p>
+ * The search is a depth-first search over the field, moves being played then undone. Every state reached gets an
+ * entry in a transposition table keyed by its canonical hash, so a state is only solved once whatever the order and
+ * the colors its tiles were reached with. A state is cut as soon as its score upper bound can't beat the best score
+ * already known, and larger groups are tried first so that good scores are known early.
+ * <p>
+ * The moves of the searched field are split between the threads of a fork-join pool. They share the table and the best
+ * score found so far, which every thread uses to cut its own subtree.
+ *
+ * @author Nathan Furnal
+ */
+public class ExactSolver {
+    private final int threads;
+
+    /**
+     * Creates a solver.
+     *
+     * @param threads the number of threads searching in parallel.
+     */
+    public ExactSolver(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There should be at least one thread, received : " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Creates a solver using every core of the machine.
+     */
+    public ExactSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solves a field. The field itself is left untouched.
+     *
+     * @param start the field to solve.
+     * @return the moves reaching the best possible score from the field, and that score.
+     */
+    public Solution solve(Field start) {
+        if (start == null) {
+            throw new IllegalArgumentException("Can't solve a null field.");
+        }
+        ConcurrentHashMap<Long, Entry> table = new ConcurrentHashMap<>();
+        int[] moves = new int[start.legalMoveCount()];
+        int n = start.legalMoves(moves);
+        sortBySize(start, moves, n);
+        AtomicLong best = new AtomicLong(-1);
+        List<RootSearch> tasks = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            tasks.add(new RootSearch(start, moves[k], table, best));
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        // Only the root move that raised the best score to its final value keeps it as its value.
+        Field f = new Field(start);
+        List<Position> path = new ArrayList<>();
+        for (RootSearch task : tasks) {
+            if (task.value == best.get()) {
+                path.add(f.toPosition(task.cell));
+                f.play(task.cell);
+                break;
+            }
+        }
+        // Every state of the optimal path beat the bound it was searched with, so its entry is exact.
+        Entry e;
+        while ((e = table.get(f.canonicalHash())) != null && e.move >= 0) {
+            path.add(f.toPosition(e.move));
+            f.play(e.move);
+        }
+        return new Solution(f.getScore(), path);
+    }
+
+    /**
+     * Searches the best score that can still be earned from a field, if it is larger than a given bound. The field is
+     * left as it was found.
+     *
+     * @param f       the field to search from.
+     * @param alpha   the score to beat.
+     * @param table   the transposition table.
+     * @param buffers the move buffers, one per depth.
+     * @param depth   the depth of the field in the search.
+     * @return the exact best score still to be earned if it is larger than <code>alpha</code>, otherwise an upper
+     * bound of that score which is not larger than <code>alpha</code>.
+     */
+    private static long search(Field f, long alpha, ConcurrentHashMap<Long, Entry> table, int[][] buffers,
+                               int depth) {
+        long key = f.canonicalHash();
+        Entry e = table.get(key);
+        if (e != null && (e.exact || e.value <= alpha)) {
+            return e.value;
+        }
+        long bound = f.scoreUpperBound() - f.getScore();
+        if (bound <= alpha) {
+            return bound;
+        }
+        int[] moves = buffers[depth];
+        int n = f.legalMoves(moves);
+        sortBySize(f, moves, n);
+        long best = n == 0 ? 0 : -1;
+        int bestMove = -1;
+        long a = alpha;
+        for (int k = 0; k < n && best < bound; k++) {
+            Move m = f.play(moves[k]);
+            long v = m.getScore() + search(f, a - m.getScore(), table, buffers, depth + 1);
+            f.undo(m);
+            if (v > best) {
+                best = v;
+                bestMove = moves[k];
+                a = Math.max(a, v);
+            }
+        }
+        Entry entry = new Entry(best, best > alpha ? bestMove : -1, best > alpha);
+        table.merge(key, entry, (old, neu) -> old.exact ? old : neu);
+        return best;
+    }
+
+    /**
+     * Sorts moves by decreasing group size, with an insertion sort since there are few of them.
+     *
+     * @param f     the field the moves are played on.
+     * @param moves the cells of the moves.
+     * @param n     the number of moves.
+     */
+    private static void sortBySize(Field f, int[] moves, int n) {
+        for (int i = 1; i < n; i++) {
+            int cell = moves[i];
+            int size = f.groupSize(cell);
+            int j = i - 1;
+            while (j >= 0 && f.groupSize(moves[j]) < size) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = cell;
+        }
+    }
+
+    /**
+     * The search of the subtree of one move of the searched field, run on the pool.
+     */
+    @SuppressWarnings("serial")
+    private static final class RootSearch extends RecursiveAction {
+        private final Field start;
+        private final int cell;
+        private final ConcurrentHashMap<Long, Entry> table;
+        private final AtomicLong best;
+        private long value = -1;
+
+        RootSearch(Field start, int cell, ConcurrentHashMap<Long, Entry> table, AtomicLong best) {
+            this.start = start;
+            this.cell = cell;
+            this.table = table;
+            this.best = best;
+        }
+
+        @Override
+        protected void compute() {
+            Field f = new Field(start);
+            long gain = f.play(cell).getScore();
+            int[][] buffers = new int[f.getNCells() / 2 + 1][f.getNCells() / 2 + 1];
+            long v = gain + search(f, best.get() - gain, table, buffers, 0);
+            if (v > best.getAndAccumulate(v, Math::max)) {
+                value = v;
+            }
+        }
+    }
+
+    /**
+     * An entry of the transposition table. An exact entry holds the best score that can still be earned from its
+     * state and the move reaching it, otherwise the value is only an upper bound of that score.
+     */
+    private static final class Entry {
+        private final long value;
+        private final int move;
+        private final boolean exact;
+
+        Entry(long value, int move, boolean exact) {
+            this.value = value;
+            this.move = move;
+            this.exact = exact;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Corpus;
+import g55803.samegame.model.Field;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Solves boards with a beam search, without any user interface. Meant for batch jobs. Boards are either drawn from
+ * consecutive seeds starting at the given one, or at a random one, so that any board can be replayed, or read from a
+ * corpus file starting at the given index.
+ * <p>
+ * Usage: <code>Main rows cols colors width boards [maxNodes] [millis] [seed]</code>
+ * or <code>Main corpus width boards [maxNodes] [millis] [first]</code>
+ *
+ * @author Nathan Furnal
+ */
+public class Main {
+    public static void main(String[] args) throws IOException {
+        boolean fromCorpus = args.length > 0 && !args[0].matches("\\d+");
+        int skip = fromCorpus ? 2 : 0;
+        if (args.length < 5 - skip) {
+            System.out.println("Usage: Main rows cols colors width boards [maxNodes] [millis] [seed]");
+            System.out.println("   or: Main corpus width boards [maxNodes] [millis] [first]");
+            System.exit(1);
+        }
+        int width = Integer.parseInt(args[3 - skip]);
+        int boards = Integer.parseInt(args[4 - skip]);
+        long maxNodes = args.length > 5 - skip ? Long.parseLong(args[5 - skip]) : Long.MAX_VALUE;
+        Duration timeLimit = args.length > 6 - skip ? Duration.ofMillis(Long.parseLong(args[6 - skip]))
+                : Duration.ofHours(1);
+        BeamSearch search = new BeamSearch(width, maxNodes, timeLimit);
+        if (fromCorpus) {
+            try (Corpus corpus = Corpus.open(Paths.get(args[0]))) {
+                long first = args.length > 5 ? Long.parseLong(args[5]) : 0;
+                long last = Math.min(corpus.size(), first + boards);
+                Iterator<Field> fields = new Iterator<>() {
+                    private long next = first;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < last;
+                    }
+
+                    @Override
+                    public Field next() {
+                        return Field.fromCorpus(corpus, next++);
+                    }
+                };
+                solve(search, fields);
+            }
+        } else {
+            int nRows = Integer.parseInt(args[0]);
+            int nCols = Integer.parseInt(args[1]);
+            int nColors = Integer.parseInt(args[2]);
+            long seed = args.length > 7 ? Long.parseLong(args[7]) : ThreadLocalRandom.current().nextLong();
+            solve(search, Field.fromSeeds(nRows, nCols, nColors, seed, boards).iterator());
+        }
+    }
+
+    /**
+     * Solves boards one after the other and prints the score of each and the mean score.
+     *
+     * @param search the beam search.
+     * @param fields the boards to solve.
+     */
+    private static void solve(BeamSearch search, Iterator<Field> fields) {
+        long total = 0;
+        int boards = 0;
+        long begin = System.nanoTime();
+        while (fields.hasNext()) {
+            Field field = fields.next();
+            Solution s = search.solve(field);
+            total += s.getScore();
+            System.out.println("board " + boards + " (seed " + field.getSeed() + ") : score " + s.getScore() + " in "
+                    + s.getMoves().size() + " moves");
+            boards++;
+        }
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(boards + " boards solved in " + millis + " ms, mean score " + (double) total / boards);
+    }
+}
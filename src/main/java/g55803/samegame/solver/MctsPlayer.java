@@ -0,0 +1,231 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Position;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides a Monte Carlo Tree Search player. The tree is shared by all the threads (tree parallelization): its
+ * statistics live in a lock-free {@link EdgeTable} keyed by canonical state hash and move, so that states only
+ * differing by a relabeling of colors share their statistics, and each thread runs its own selection, play-out and
+ * back-propagation. A visit is counted as soon as an edge is selected and its score only added after the play-out,
+ * which acts as a virtual loss and spreads the threads over the tree.
+ *
+ * @author Nathan Furnal
+ */
+public class MctsPlayer {
+    private final int threads;
+    private final RolloutPolicy policy;
+    private final double exploration;
+    private final int tableBits;
+
+    /**
+     * Creates a player.
+     *
+     * @param threads     the number of threads searching in parallel.
+     * @param policy      the policy used to pick moves during play-outs.
+     * @param exploration the exploration constant of the UCT formula, scores being normalized to [0, 1].
+     * @param tableBits   the base 2 logarithm of the number of edges the statistics table can hold.
+     */
+    public MctsPlayer(int threads, RolloutPolicy policy, double exploration, int tableBits) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There should be at least one thread, received : " + threads);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("The rollout policy can't be null.");
+        }
+        if (exploration < 0) {
+            throw new IllegalArgumentException("The exploration constant should be positive, received : " + exploration);
+        }
+        EdgeTable.checkBits(tableBits);
+        this.threads = threads;
+        this.policy = policy;
+        this.exploration = exploration;
+        this.tableBits = tableBits;
+    }
+
+    /**
+     * Default constructor with sane defaults for the hints of the views: searches of about a second on boards of at
+     * most a few hundred cells. The table holds 2^16 edges (1.5 MB, allocated for every search) and up to 4 threads
+     * search in parallel, more would mostly fight over the same few edges.
+     */
+    public MctsPlayer() {
+        this(Math.min(4, Runtime.getRuntime().availableProcessors()), RolloutPolicy.random(), 0.4, 16);
+    }
+
+    /**
+     * Searches the best move to play on a field during a given time. The field itself is left untouched. Interrupting
+     * the calling thread stops the search early: the best move found so far is returned and the thread stays
+     * interrupted.
+     *
+     * @param field  the field to play on.
+     * @param budget the time to search for.
+     * @return the position of the best move or <code>null</code> if no move can be played.
+     */
+    public Position bestMove(Field field, Duration budget) {
+        if (field == null) {
+            throw new IllegalArgumentException("Can't search from a null field.");
+        }
+        if (budget == null || budget.isNegative()) {
+            throw new IllegalArgumentException("The budget should be a positive duration, received : " + budget);
+        }
+        Field root = new Field(field);
+        int[] moves = new int[root.getNCells()];
+        int n = root.legalMoves(moves);
+        if (n <= 1) {
+            return n == 0 ? null : root.toPosition(moves[0]);
+        }
+        EdgeTable table = new EdgeTable(tableBits);
+        long deadline = System.nanoTime() + Math.min(BeamSearch.nanos(budget), Long.MAX_VALUE / 2);
+        AtomicLong maxGain = new AtomicLong(1);
+        SplittableRandom seeds = new SplittableRandom();
+        Thread[] workers = new Thread[threads];
+        RuntimeException[] failure = new RuntimeException[1];
+        for (int t = 0; t < threads; t++) {
+            Worker w = new Worker(root, table, maxGain, seeds.split());
+            workers[t] = new Thread(() -> w.run(deadline), "mcts-" + t);
+            workers[t].setDaemon(true);
+            workers[t].setUncaughtExceptionHandler((th, e) -> failure[0] = new IllegalStateException(e));
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                for (Thread other : workers) {
+                    other.interrupt();
+                }
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        long hash = root.canonicalHash();
+        int best = moves[0];
+        long bestVisits = -1;
+        for (int k = 0; k < n; k++) {
+            long v = table.visits(table.find(EdgeTable.key(hash, moves[k]), false));
+            if (v > bestVisits) {
+                bestVisits = v;
+                best = moves[k];
+            }
+        }
+        return root.toPosition(best);
+    }
+
+    /**
+     * Runs the iterations of one thread until the deadline.
+     */
+    private final class Worker {
+        private final Field root;
+        private final EdgeTable table;
+        private final AtomicLong maxGain;
+        private final SplittableRandom random;
+        private final int[] moves;
+        private final int[] slots;
+        private final int[] path;
+
+        Worker(Field root, EdgeTable table, AtomicLong maxGain, SplittableRandom random) {
+            this.root = root;
+            this.table = table;
+            this.maxGain = maxGain;
+            this.random = random;
+            this.moves = new int[root.getNCells()];
+            this.slots = new int[root.getNCells()];
+            this.path = new int[root.getNCells()];
+        }
+
+        void run(long deadline) {
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                iterate();
+            }
+        }
+
+        /**
+         * Runs one selection, expansion, play-out and back-propagation.
+         */
+        private void iterate() {
+            Field f = new Field(root);
+            int depth = 0;
+            boolean expanded = false;
+            int n;
+            while (!expanded && (n = f.legalMoves(moves)) > 0) {
+                long hash = f.canonicalHash();
+                long total = 0;
+                int unvisited = 0;
+                for (int k = 0; k < n; k++) {
+                    slots[k] = table.find(EdgeTable.key(hash, moves[k]), false);
+                    long v = table.visits(slots[k]);
+                    total += v;
+                    if (v == 0) {
+                        unvisited++;
+                    }
+                }
+                int chosen;
+                if (unvisited > 0) {
+                    chosen = pickUnvisited(n, unvisited);
+                    slots[chosen] = table.find(EdgeTable.key(hash, moves[chosen]), true);
+                    expanded = true;
+                } else {
+                    chosen = pickUct(n, total);
+                }
+                table.addVisit(slots[chosen]);
+                path[depth++] = slots[chosen];
+                f.play(moves[chosen]);
+            }
+            while ((n = f.legalMoves(moves)) > 0) {
+                f.play(policy.choose(f, moves, n, random));
+            }
+            long gain = f.getScore() - root.getScore();
+            maxGain.accumulateAndGet(gain, Math::max);
+            for (int d = 0; d < depth; d++) {
+                table.addScore(path[d], gain);
+            }
+        }
+
+        /**
+         * Picks one of the moves that were never visited, at random.
+         *
+         * @param n         the number of moves.
+         * @param unvisited the number of moves never visited.
+         * @return the index of the chosen move.
+         */
+        private int pickUnvisited(int n, int unvisited) {
+            int target = random.nextInt(unvisited);
+            for (int k = 0; k < n; k++) {
+                if (table.visits(slots[k]) == 0 && target-- == 0) {
+                    return k;
+                }
+            }
+            return 0; // another thread visited it in the meantime
+        }
+
+        /**
+         * Picks the move with the best upper confidence bound.
+         *
+         * @param n     the number of moves.
+         * @param total the number of visits of all the moves.
+         * @return the index of the chosen move.
+         */
+        private int pickUct(int n, long total) {
+            double logTotal = Math.log(total);
+            double norm = maxGain.get();
+            int chosen = 0;
+            double best = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < n; k++) {
+                long v = Math.max(1, table.visits(slots[k]));
+                double u = table.scores(slots[k]) / (v * norm) + exploration * Math.sqrt(logTotal / v);
+                if (u > best) {
+                    best = u;
+                    chosen = k;
+                }
+            }
+            return chosen;
+        }
+    }
+}
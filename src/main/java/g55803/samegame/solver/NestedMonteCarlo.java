@@ -0,0 +1,251 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Provides a Nested Monte Carlo Search. A search of level <code>n</code> tries every move, runs a search of level
+ * <code>n - 1</code> after each of them and follows the best sequence found so far, which is memorized from one move
+ * to the next. A search of level 0 is a single play-out. Below the top level, a move whose score upper bound can't beat
+ * the memorized sequence is not searched at all.
+ * <p>
+ * The sub-searches launched by the top level are run on a fork-join pool. Each of them gets its own random generator
+ * seeded from the seed of the search, the step and the move, so a search is reproducible from its seed whatever the
+ * number of threads.
+ *
+ * @author Nathan Furnal
+ */
+public class NestedMonteCarlo {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private final int level;
+    private final int threads;
+    private final long seed;
+    private final RolloutPolicy policy;
+
+    /**
+     * Creates a search.
+     *
+     * @param level   the nesting level, at least 1.
+     * @param threads the number of threads running the sub-searches of the top level.
+     * @param seed    the seed the search is reproducible from.
+     * @param policy  the policy used to pick moves during play-outs.
+     */
+    public NestedMonteCarlo(int level, int threads, long seed, RolloutPolicy policy) {
+        if (level < 1) {
+            throw new IllegalArgumentException("The nesting level should be at least 1, received : " + level);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("There should be at least one thread, received : " + threads);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("The rollout policy can't be null.");
+        }
+        this.level = level;
+        this.threads = threads;
+        this.seed = seed;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a search with random play-outs, using every core of the machine.
+     *
+     * @param level the nesting level, at least 1.
+     * @param seed  the seed the search is reproducible from.
+     */
+    public NestedMonteCarlo(int level, long seed) {
+        this(level, Runtime.getRuntime().availableProcessors(), seed, RolloutPolicy.random());
+    }
+
+    /**
+     * Searches the best sequence of moves from a given field. The field itself is left untouched.
+     *
+     * @param start the field to search from.
+     * @return the best sequence of moves found and its score.
+     */
+    public Solution solve(Field start) {
+        if (start == null) {
+            throw new IllegalArgumentException("Can't search from a null field.");
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Result best = top(new Field(start), pool);
+            List<Position> moves = new ArrayList<>(best.moves.length);
+            for (int cell : best.moves) {
+                moves.add(start.toPosition(cell));
+            }
+            return new Solution(best.score, moves);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the top level of the search, its sub-searches are forked on the pool.
+     *
+     * @param state the field to search from, owned by the search.
+     * @param pool  the pool running the sub-searches.
+     * @return the best sequence found.
+     */
+    private Result top(Field state, ForkJoinPool pool) {
+        int[] moves = new int[state.getNCells()];
+        Result best = new Result(state.getScore(), new int[0]);
+        int played = 0;
+        int n;
+        while ((n = state.legalMoves(moves)) > 0) {
+            List<SubSearch> tasks = new ArrayList<>(n);
+            for (int k = 0; k < n; k++) {
+                Field child = new Field(state);
+                child.play(moves[k]);
+                long taskSeed = mix(mix(seed + played * GOLDEN) + k);
+                tasks.add(new SubSearch(child, new SplittableRandom(taskSeed)));
+            }
+            for (SubSearch task : tasks) {
+                pool.execute(task);
+            }
+            // Results are compared in move order, so the outcome does not depend on which task finished first.
+            for (int k = 0; k < n; k++) {
+                Result r = tasks.get(k).join();
+                if (r.score > best.score) {
+                    best = best.extend(played, moves[k], r);
+                }
+            }
+            state.play(best.moves[played++]);
+        }
+        return best;
+    }
+
+    /**
+     * Runs a search of a given level, sequentially.
+     *
+     * @param state   the field to search from, owned by the search.
+     * @param level   the level of the search.
+     * @param context the buffers and random generator of the calling thread.
+     * @return the best sequence found.
+     */
+    private Result nested(Field state, int level, Context context) {
+        if (level == 0) {
+            return playout(state, context);
+        }
+        int[] moves = context.moves[level];
+        Result best = new Result(state.getScore(), new int[0]);
+        int played = 0;
+        int n;
+        while ((n = state.legalMoves(moves)) > 0) {
+            for (int k = 0; k < n; k++) {
+                Field child = new Field(state);
+                child.play(moves[k]);
+                if (child.scoreUpperBound() <= best.score) {
+                    continue; // can't beat the memorized sequence
+                }
+                Result r = nested(child, level - 1, context);
+                if (r.score > best.score) {
+                    best = best.extend(played, moves[k], r);
+                }
+            }
+            state.play(best.moves[played++]);
+        }
+        return best;
+    }
+
+    /**
+     * Plays moves picked by the policy until none is left.
+     *
+     * @param state   the field to play on, owned by the search.
+     * @param context the buffers and random generator of the calling thread.
+     * @return the sequence played.
+     */
+    private Result playout(Field state, Context context) {
+        int[] moves = context.moves[0];
+        int[] sequence = context.sequence;
+        int length = 0;
+        int n;
+        while ((n = state.legalMoves(moves)) > 0) {
+            int cell = policy.choose(state, moves, n, context.random);
+            sequence[length++] = cell;
+            state.play(cell);
+        }
+        return new Result(state.getScore(), Arrays.copyOf(sequence, length));
+    }
+
+    /**
+     * Mixes the bits of a value, this is the SplitMix64 finalizer.
+     *
+     * @param z the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A sub-search of the top level, run on the pool.
+     */
+    @SuppressWarnings("serial")
+    private final class SubSearch extends RecursiveTask<Result> {
+        private final Field state;
+        private final SplittableRandom random;
+
+        SubSearch(Field state, SplittableRandom random) {
+            this.state = state;
+            this.random = random;
+        }
+
+        @Override
+        protected Result compute() {
+            return nested(state, level - 1, new Context(state.getNCells(), level, random));
+        }
+    }
+
+    /**
+     * The buffers of one sub-search: one move list per level, so that the nested levels don't overwrite each other,
+     * and the sequence of the current play-out.
+     */
+    private static final class Context {
+        private final int[][] moves;
+        private final int[] sequence;
+        private final SplittableRandom random;
+
+        Context(int nCells, int levels, SplittableRandom random) {
+            this.moves = new int[levels][nCells];
+            this.sequence = new int[nCells];
+            this.random = random;
+        }
+    }
+
+    /**
+     * A sequence of cells to play from the start of a search and the score it reaches.
+     */
+    private static final class Result {
+        private final long score;
+        private final int[] moves;
+
+        Result(long score, int[] moves) {
+            this.score = score;
+            this.moves = moves;
+        }
+
+        /**
+         * Creates the sequence made of the first moves of this one, a move, then a sub-sequence.
+         *
+         * @param played the number of moves of this sequence to keep.
+         * @param move   the move played after them.
+         * @param tail   the sub-sequence played after the move.
+         * @return the new sequence, with the score of the sub-sequence.
+         */
+        Result extend(int played, int move, Result tail) {
+            int[] seq = Arrays.copyOf(moves, played + 1 + tail.moves.length);
+            seq[played] = move;
+            System.arraycopy(tail.moves, 0, seq, played + 1, tail.moves.length);
+            return new Result(tail.score, seq);
+        }
+    }
+}
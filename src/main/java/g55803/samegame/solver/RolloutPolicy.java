@@ -0,0 +1,58 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+
+import java.util.SplittableRandom;
+
+/**
+ * Provides the way moves are picked during the random play-outs of a search.
+ *
+ * @author Nathan Furnal
+ */
+@FunctionalInterface
+public interface RolloutPolicy {
+
+    /**
+     * Picks the next move to play.
+     *
+     * @param field  the field to play on.
+     * @param moves  the cells of the moves that can be played, one per group.
+     * @param n      the number of moves, at least one.
+     * @param random the random generator of the calling thread.
+     * @return the cell to play.
+     */
+    int choose(Field field, int[] moves, int n, SplittableRandom random);
+
+    /**
+     * Gets a policy picking moves uniformly at random.
+     *
+     * @return the policy.
+     */
+    static RolloutPolicy random() {
+        return (field, moves, n, random) -> moves[random.nextInt(n)];
+    }
+
+    /**
+     * Gets a policy playing the largest group, or a random move with a given probability.
+     *
+     * @param epsilon the probability of playing a random move.
+     * @return the policy.
+     */
+    static RolloutPolicy greedy(double epsilon) {
+        if (epsilon < 0 || epsilon > 1) {
+            throw new IllegalArgumentException("The probability should be between 0 and 1, received : " + epsilon);
+        }
+        return (field, moves, n, random) -> {
+            if (random.nextDouble() < epsilon) {
+                return moves[random.nextInt(n)];
+            }
+            int best = moves[0];
+            for (int k = 1; k < n; k++) {
+                if (field.groupSize(moves[k]) > field.groupSize(best)) {
+                    best = moves[k];
+                }
+            }
+            return best;
+        };
+    }
+}
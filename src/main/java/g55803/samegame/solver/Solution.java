@@ -0,0 +1,52 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Position;
+
+import java.util.List;
+
+/**
+ * Provides the result of a search: a sequence of moves and the score it reaches from the searched field.
+ *
+ * @author Nathan Furnal
+ */
+public final class Solution {
+    private final long score;
+    private final List<Position> moves;
+
+    /**
+     * Creates a solution.
+     *
+     * @param score the score reached at the end of the moves.
+     * @param moves the moves to play, in order.
+     */
+    public Solution(long score, List<Position> moves) {
+        if (moves == null) {
+            throw new IllegalArgumentException("The moves of a solution can't be null.");
+        }
+        this.score = score;
+        this.moves = List.copyOf(moves);
+    }
+
+    /**
+     * Gets the score reached at the end of the moves.
+     *
+     * @return the score.
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the moves to play, in order. Each position is relative to the field as it is when the move is played.
+     *
+     * @return an unmodifiable list of moves.
+     */
+    public List<Position> getMoves() {
+        return moves;
+    }
+
+    @Override
+    public String toString() {
+        return "score " + score + " in " + moves.size() + " moves " + moves;
+    }
+}
@@ -2,8 +2,14 @@ package g55803.samegame.terminal.controller;
 
 import g55803.samegame.model.Facade;
 import g55803.samegame.model.Position;
+import g55803.samegame.model.record.RecordWriter;
+import g55803.samegame.solver.MctsPlayer;
 import g55803.samegame.terminal.termview.TerminalView;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
 /**
  * Provides a controller for the terminal view part of the game. It uses hard-coded commands with switches
  * to allow basic interaction.
@@ -20,12 +26,16 @@ public class TermController {
     private static final String againCommand = "again";
     private static final String resetCommand = "reset";
     private static final String helpCommand = "help";
+    private static final String hintCommand = "hint";
+    private static final String saveCommand = "save";
     private final TerminalView view;
     private final Facade model;
+    private final MctsPlayer player;
 
     public TermController(Facade model, TerminalView view) {
         this.view = view;
         this.model = model;
+        this.player = new MctsPlayer();
     }
 
 
@@ -48,6 +58,8 @@ public class TermController {
             case undoCommand -> undo();
             case redoCommand -> redo();
             case helpCommand -> view.showHelp();
+            case hintCommand -> hint();
+            case saveCommand -> parseSaveCommand(args);
             case quitCommand, exitCommand -> exit();
             default -> System.out.println("This command is not known. Please try something else.");
         }
@@ -81,6 +93,25 @@ public class TermController {
         view.show();
     }
 
+    /**
+     * Utility method to parse the save command, the record of the game is written to the given file.
+     *
+     * @param args the arguments to pass to the command.
+     */
+    private void parseSaveCommand(String[] args) {
+        if (args.length < 2 || args[1].isBlank()) {
+            System.out.println("Please enter the name of the file to save the game to.");
+            return;
+        }
+        String file = args[1].strip();
+        try (RecordWriter writer = new RecordWriter(new FileOutputStream(file))) {
+            writer.write(model.getRecord());
+            System.out.println("The game was saved to " + file + ".");
+        } catch (IOException e) {
+            System.out.println("The game could not be saved : " + e.getMessage());
+        }
+    }
+
     /**
      * Utility method asking the user to play again.
      */
@@ -97,6 +128,18 @@ public class TermController {
         }
     }
 
+    /**
+     * Asks the computer player for the best move and displays it, the move is not played.
+     */
+    public void hint() {
+        Position p = player.bestMove(model.copyField(), Duration.ofSeconds(1));
+        if (p == null) {
+            System.out.println("There is no move left to play!");
+        } else {
+            System.out.println("You could try : play " + (p.getRow() + 1) + " " + (p.getCol() + 1));
+        }
+    }
+
     /**
      * Undoes the last action by calling the facade.
      */
@@ -6,6 +6,7 @@ import g55803.samegame.model.Position;
 import g55803.samegame.utils.ParsingUtils;
 
 import java.util.HashMap;
+import java.util.OptionalLong;
 
 /**
  * Provides a view in the terminal for same game.
@@ -13,6 +14,7 @@ import java.util.HashMap;
  * @author Nathan Furnal
  */
 public class TerminalView {
+    private static final int MAX_SIZE = 19; // Larger boards don't fit in a terminal
     private final HashMap<String, String> colorMap = new HashMap<>();
     private final Facade model;
     private boolean canUseEmojis = true;
@@ -52,6 +54,8 @@ public class TerminalView {
                 > play row col  --> plays the move at (col, row) e.g : > play 1 2
                 > undo          --> undoes a move
                 > redo          --> redoes a move
+                > hint          --> suggests a move
+                > save file     --> saves the record of the game to a file
                 > reset         --> leaves the current game and starts a new one, you can also use 'again'
                 > exit          --> exits the game, you can also use 'quit'
                 > help          --> displays the help menu
@@ -91,34 +95,34 @@ public class TerminalView {
             s.append("| ").append(i + 1).append("\n");
         }
         s.append(lining).append("\n");
-        s.append("Score : ").append(model.getScore());
+        s.append("Score : ").append(model.getScore()).append("    Seed : ").append(model.getSeed());
         return s.toString();
     }
 
     /**
-     * Asks the user for a positive number of rows.
+     * Asks the user for a number of rows the terminal can display.
      *
      * @return the number of rows input.
      */
     private int setupRows() {
         int out = ParsingUtils.readUserInt("Pick a number of rows for the board: ");
         int lim = 2;
-        while (out < lim) {
-            out = ParsingUtils.readUserInt("Please pick a positive number of rows over " + lim + ".");
+        while (out < lim || out > MAX_SIZE) {
+            out = ParsingUtils.readUserInt("Please pick a number of rows between " + lim + " and " + MAX_SIZE + ".");
         }
         return out;
     }
 
     /**
-     * Asks the user for a positive number of columns.
+     * Asks the user for a number of columns the terminal can display.
      *
      * @return the number of columns input.
      */
     private int setupCols() {
         int out = ParsingUtils.readUserInt("Pick a number of columns for the board:");
         int lim = 2;
-        while (out < lim) {
-            out = ParsingUtils.readUserInt("Please pick a positive number of columns over " + lim + ".");
+        while (out < lim || out > MAX_SIZE) {
+            out = ParsingUtils.readUserInt("Please pick a number of columns between " + lim + " and " + MAX_SIZE + ".");
         }
         return out;
     }
@@ -137,6 +141,26 @@ public class TerminalView {
         return out;
     }
 
+    /**
+     * Asks the user for the seed of the board, an empty answer picks a random board.
+     *
+     * @return the seed input, or an empty value for a random board.
+     */
+    private OptionalLong setupSeed() {
+        String msg = "Pick a seed to replay a board or press enter for a random one: ";
+        while (true) {
+            String out = ParsingUtils.readUserString(msg);
+            if (out.isEmpty()) {
+                return OptionalLong.empty();
+            }
+            try {
+                return OptionalLong.of(Long.parseLong(out));
+            } catch (NumberFormatException e) {
+                System.out.println("Please enter an integer.");
+            }
+        }
+    }
+
     /**
      * Asks the user if the terminal is emoji capable in order to play the game.
      *
@@ -160,7 +184,12 @@ public class TerminalView {
         int nRows = setupRows();
         int nCols = setupCols();
         int nColors = setupColors();
-        model.newField(nRows, nCols, nColors);
+        OptionalLong seed = setupSeed();
+        if (seed.isPresent()) {
+            model.newField(nRows, nCols, nColors, seed.getAsLong());
+        } else {
+            model.newField(nRows, nCols, nColors);
+        }
     }
 
     /**
@@ -176,6 +205,8 @@ public class TerminalView {
                  > play row col  --> plays the move at (col, row) e.g : > play 1 2
                  > undo          --> undoes a move
                  > redo          --> redoes a move
+                 > hint          --> suggests a move
+                 > save file     --> saves the record of the game to a file
                  > reset         --> leaves the current game and starts a new one, you can also use 'again'
                  > exit          --> exits the game, you can also use 'quit'
                  > help          --> displays the help menu
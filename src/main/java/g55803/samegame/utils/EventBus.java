@@ -0,0 +1,221 @@
+package g55803.samegame.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+
+/**
+ * Provides an asynchronous event bus. Publishing an event only queues it for every subscriber, each subscriber is then
+ * updated on its own executor, so a slow observer never slows down the publisher nor the other observers.
+ * <p>
+ * Every subscriber is drained by one task at a time, so it sees the events in the order they were published. A
+ * subscriber can coalesce the events that piled up while it was busy into a single pending event, for instance a view
+ * that only needs to know what changed since it was last drawn: however far behind it is, it holds a single event.
+ * Subscriptions coalesce by default, with the coalescer of the bus, or by keeping the latest event when the bus has
+ * none. Only a subscriber that explicitly asks for every event gets a queue, which grows as long as it lags behind. A
+ * subscriber held weakly is dropped once its observer is no longer reachable from elsewhere, such as a window that was
+ * closed without unsubscribing.
+ *
+ * @param <E> the type of the events, which should be immutable since they are read from other threads.
+ * @author Nathan Furnal
+ */
+public class EventBus<E> implements Observable<E> {
+    private final CopyOnWriteArrayList<Subscriber<E>> subscribers = new CopyOnWriteArrayList<>();
+    private final Executor executor;
+    private final BinaryOperator<E> coalescer;
+
+    /**
+     * Creates a bus updating its observers on a given executor, unless they subscribe with their own.
+     *
+     * @param executor  the default executor of the observers.
+     * @param coalescer merges two events following each other into one for the observers subscribed without their
+     *                  own coalescer, or <code>null</code> to only keep the latest event.
+     */
+    public EventBus(Executor executor, BinaryOperator<E> coalescer) {
+        if (executor == null) {
+            throw new IllegalArgumentException("The executor of the bus can't be null.");
+        }
+        this.executor = executor;
+        this.coalescer = coalescer != null ? coalescer : (older, newer) -> newer;
+    }
+
+    /**
+     * Creates a bus updating its observers on a given executor, unless they subscribe with their own. Observers
+     * subscribed without a coalescer only see the latest event once they catch up.
+     *
+     * @param executor the default executor of the observers.
+     */
+    public EventBus(Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * Creates a bus updating its observers on the common fork-join pool, unless they subscribe with their own executor.
+     */
+    public EventBus() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Subscribes an observer, updated on the default executor of the bus. The events published while it is busy are
+     * coalesced with the coalescer of the bus.
+     *
+     * @param observer the observer.
+     */
+    @Override
+    public void subscribe(Observer<? super E> observer) {
+        subscribe(observer, executor, coalescer);
+    }
+
+    /**
+     * Subscribes an observer.
+     *
+     * @param observer  the observer.
+     * @param executor  the executor the observer is updated on.
+     * @param coalescer merges two events following each other into one, or <code>null</code> to see every event, in
+     *                  which case the events wait in a queue as long as the observer lags behind.
+     */
+    public void subscribe(Observer<? super E> observer, Executor executor, BinaryOperator<E> coalescer) {
+        add(new Subscriber<>(observer, false, executor, coalescer));
+    }
+
+    /**
+     * Subscribes an observer held weakly, it is unsubscribed once it is no longer reachable from elsewhere. The
+     * observer should thus be an object kept alive by its owner, not a lambda only known by the bus.
+     *
+     * @param observer  the observer.
+     * @param executor  the executor the observer is updated on.
+     * @param coalescer merges two events following each other into one, or <code>null</code> to see every event.
+     */
+    public void subscribeWeak(Observer<? super E> observer, Executor executor, BinaryOperator<E> coalescer) {
+        add(new Subscriber<>(observer, true, executor, coalescer));
+    }
+
+    private void add(Subscriber<E> subscriber) {
+        if (subscriber.observer() == null || subscriber.executor == null) {
+            throw new IllegalArgumentException("The observer and its executor can't be null.");
+        }
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void unsubscribe(Observer<? super E> observer) {
+        subscribers.removeIf(s -> {
+            Observer<? super E> o = s.observer();
+            if (o == null || o == observer) {
+                s.cancelled = true;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Publishes an event to every observer. The method returns once the event is queued, before any observer sees it.
+     *
+     * @param event the event.
+     */
+    public void publish(E event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Can't publish a null event.");
+        }
+        for (Subscriber<E> s : subscribers) {
+            if (!s.offer(event)) {
+                subscribers.remove(s);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of observers subscribed, including weak ones that were not dropped yet.
+     *
+     * @return the number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * An observer with its pending events: a single event merged on arrival when it coalesces, a queue otherwise. They
+     * are drained by a single task at a time: the task is only submitted by the publisher that finds the subscriber
+     * idle.
+     */
+    private static final class Subscriber<E> implements Runnable {
+        private final Object ref;
+        private final Executor executor;
+        private final BinaryOperator<E> coalescer;
+        private final ConcurrentLinkedQueue<E> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<E> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        Subscriber(Observer<? super E> observer, boolean weak, Executor executor, BinaryOperator<E> coalescer) {
+            this.ref = weak && observer != null ? new WeakReference<>(observer) : observer;
+            this.executor = executor;
+            this.coalescer = coalescer;
+        }
+
+        @SuppressWarnings("unchecked")
+        Observer<? super E> observer() {
+            return ref instanceof WeakReference ? ((WeakReference<Observer<? super E>>) ref).get()
+                    : (Observer<? super E>) ref;
+        }
+
+        /**
+         * Queues an event and makes sure a task will drain it.
+         *
+         * @param event the event.
+         * @return false if the observer is gone and the subscriber should be dropped.
+         */
+        boolean offer(E event) {
+            if (observer() == null) {
+                return false;
+            }
+            if (coalescer == null) {
+                queue.add(event);
+            } else {
+                pending.accumulateAndGet(event, (older, newer) -> older == null ? newer : coalescer.apply(older, newer));
+            }
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                E event;
+                if (coalescer == null) {
+                    while ((event = queue.poll()) != null) {
+                        deliver(event);
+                    }
+                } else if ((event = pending.getAndSet(null)) != null) {
+                    deliver(event);
+                }
+            } finally {
+                scheduled.set(false);
+                // An event queued after the last poll but before the flag was cleared found the task still running.
+                if (!queue.isEmpty() || pending.get() != null) {
+                    schedule();
+                }
+            }
+        }
+
+        private void deliver(E event) {
+            Observer<? super E> o = observer();
+            if (o != null && !cancelled) {
+                o.update(event);
+            }
+        }
+    }
+}
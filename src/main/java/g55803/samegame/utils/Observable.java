@@ -3,29 +3,22 @@ package g55803.samegame.utils;
 /**
  * Provides an observable interface for the Observable/Observer design pattern.
  *
+ * @param <E> the type of the events published.
  * @author Nathan Furnal
  */
-public interface Observable {
+public interface Observable<E> {
 
     /**
      * Subscribes an observer to the current subject.
      *
      * @param observer the observer which will observe the subject.
      */
-    void subscribe(Observer observer);
+    void subscribe(Observer<? super E> observer);
 
     /**
      * Unsubscribes an observer to the current subject.
      *
      * @param observer the observer to unsubscribe from the subject.
      */
-    void unsubscribe(Observer observer);
-
-    /**
-     * Notifies all observers of the new state of the current subject.
-     *
-     * @param observerList the list of observers to notify.
-     */
-//    void notify(List<Observer> observerList);
+    void unsubscribe(Observer<? super E> observer);
 }
-
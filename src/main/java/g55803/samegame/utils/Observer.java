@@ -3,12 +3,15 @@ package g55803.samegame.utils;
 /**
  * Provides an observer interface for the Observable/Observer design pattern.
  *
+ * @param <E> the type of the events observed.
  * @author Nathan Furnal
  */
-public interface Observer {
+@FunctionalInterface
+public interface Observer<E> {
     /**
-     * Updates the observer's behavior given the state of an observable.
+     * Updates the observer's behavior given an event of an observable.
+     *
+     * @param event the event, which describes what changed.
      */
-    void update();
+    void update(E event);
 }
-
@@ -0,0 +1,56 @@
+package g55803.samegame.fx.fxview;
+
+import g55803.samegame.model.Facade;
+import g55803.samegame.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class GroupCacheTest {
+
+    /**
+     * Checks the groups of the cache against the flood fill of the model, for every cell of the board.
+     */
+    private static void check(Facade game, GroupCache groups) {
+        for (int row = 0; row < game.getNRows(); row++) {
+            for (int col = 0; col < game.getNCols(); col++) {
+                Position p = new Position(row, col);
+                HashSet<Position> expected = game.groupColor(p);
+                if (game.getTile(p) != null && expected.isEmpty()) {
+                    expected.add(p); // the flood fill leaves out lone tiles
+                }
+                HashSet<Position> actual = new HashSet<>();
+                groups.forEach(row, col, cell -> actual.add(new Position(groups.toRow(cell), groups.toCol(cell))));
+                assertEquals(expected, actual);
+                assertEquals(game.groupSize(p), groups.groupSize(row, col));
+                assertEquals(game.getTile(p) == null, groups.groupId(row, col) < 0);
+            }
+        }
+    }
+
+    @Test
+    void test_groups() {
+        Facade game = new Facade();
+        game.newField(7, 9, 3, 5L);
+        GroupCache groups = new GroupCache(game);
+        check(game, groups);
+        long version = game.getVersion();
+        while (game.legalMoves().size() > 0) {
+            game.play(game.legalMoves().get(0).getPosition());
+            assertNotEquals(version, game.getVersion());
+            version = game.getVersion();
+            check(game, groups);
+        }
+        game.undo();
+        check(game, groups);
+        game.redo();
+        check(game, groups);
+        game.newField(4, 12, 2, 5L);
+        check(game, groups);
+    }
+}
@@ -0,0 +1,117 @@
+package g55803.samegame.generator;
+
+import g55803.samegame.model.Field;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class GeneratorTest {
+
+    @Test
+    void test_GeneratorCreation() {
+        BoardRater rater = new BoardRater(4);
+        Predicate<Rating> all = r -> true;
+        assertAll("Check that exceptions are thrown when the parameters are not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> new BoardRater(0));
+                    assertThrows(IllegalArgumentException.class, () -> new BoardRater(4, null));
+                    assertThrows(IllegalArgumentException.class, () -> rater.rate(null));
+                    assertThrows(IllegalArgumentException.class, () -> Generator.band(0.5, 0.1));
+                    assertThrows(IllegalArgumentException.class, () -> new Generator(1, 5, 3, rater, all, 1, 1));
+                    assertThrows(IllegalArgumentException.class, () -> new Generator(5, 5, 3, null, all, 1, 1));
+                    assertThrows(IllegalArgumentException.class, () -> new Generator(5, 5, 3, rater, all, 0, 1));
+                    assertThrows(IllegalArgumentException.class, () -> new Generator(5, 5, 3, rater, all, 1, 0));
+                    assertThrows(IllegalArgumentException.class,
+                            () -> new Generator(5, 5, 3, rater, all, 1, 1).generate(0, 10, null));
+                });
+    }
+
+    @Test
+    void test_ratingLocale() {
+        Field board = Field.fromSeed(6, 6, 3, 3L);
+        Locale before = Locale.getDefault();
+        String rating;
+        try {
+            // The lines are read by other programs, they must not follow a locale with decimal commas.
+            Locale.setDefault(Locale.GERMANY);
+            rating = new BoardRater(4).rate(board).toString();
+        } finally {
+            Locale.setDefault(before);
+        }
+        assertFalse(rating.contains(","));
+        assertEquals(new BoardRater(4).rate(board).toString(), rating);
+    }
+
+    @Test
+    void test_rate() {
+        Field board = Field.fromSeed(10, 10, 3, 7L);
+        Field copy = new Field(board);
+        Rating rating = new BoardRater(20).rate(board);
+        int tiles = 0;
+        for (int size = 1; size <= rating.getMaxGroupSize(); size++) {
+            tiles += size * rating.getGroupCount(size);
+        }
+        int largeGroups = rating.getGroupCount(rating.getMaxGroupSize());
+        int finalTiles = tiles;
+        assertAll("A rating only depends on the board and its groups cover every tile",
+                () -> {
+                    assertEquals(copy, board);
+                    assertEquals(7L, rating.getSeed());
+                    assertEquals(rating.toString(), new BoardRater(20).rate(board).toString());
+                    assertTrue(largeGroups > 0 || finalTiles == 100);
+                    assertTrue(rating.getMeanScore() >= 0 && rating.getMeanScore() <= board.scoreUpperBound());
+                    assertTrue(rating.getClearRate() >= 0 && rating.getClearRate() <= 1);
+                    assertTrue(rating.getDifficulty() >= 0 && rating.getDifficulty() <= 1);
+                    assertThrows(IllegalArgumentException.class, () -> rating.getGroupCount(0));
+                });
+    }
+
+    @Test
+    void test_generate() throws IOException {
+        BoardRater rater = new BoardRater(4);
+        Predicate<Rating> band = Generator.band(0.02, 0.1);
+        Map<Long, String> expected = new TreeMap<>();
+        for (long seed = 100; seed < 400; seed++) {
+            Rating r = rater.rate(Field.fromSeed(8, 8, 3, seed));
+            if (band.test(r)) {
+                expected.put(seed, r.toString());
+            }
+        }
+        for (int threads : new int[]{1, 3}) {
+            Map<Long, String> kept = new TreeMap<>();
+            // A queue of a single board so that the raters have to wait for the sink.
+            Generator generator = new Generator(8, 8, 3, rater, band, threads, 1);
+            long n = generator.generate(100, 300, (board, rating) -> {
+                assertEquals(Field.fromSeed(8, 8, 3, rating.getSeed()), board);
+                kept.put(rating.getSeed(), rating.toString());
+            });
+            assertEquals(expected.size(), n);
+            assertEquals(expected, kept);
+        }
+        assertFalse(expected.isEmpty());
+    }
+
+    @Test
+    void test_generate_failingSink() {
+        Generator generator = new Generator(6, 6, 3, new BoardRater(2), r -> true, 2, 4);
+        List<Long> seen = new ArrayList<>();
+        assertThrows(IOException.class, () -> generator.generate(0, 100_000, (board, rating) -> {
+            seen.add(rating.getSeed());
+            if (seen.size() == 10) {
+                throw new IOException("The disk is full.");
+            }
+        }));
+        assertEquals(10, seen.size());
+    }
+}
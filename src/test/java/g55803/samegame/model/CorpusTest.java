@@ -0,0 +1,114 @@
+package g55803.samegame.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class CorpusTest {
+
+    /**
+     * Creates an empty file for a corpus, deleted when the tests are over.
+     *
+     * @return the path of the file.
+     * @throws IOException if the file can't be created.
+     */
+    private static Path tempFile() throws IOException {
+        Path path = Files.createTempFile("corpus", ".sgc");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    @Test
+    void test_CorpusCreation() throws IOException {
+        Path path = tempFile();
+        try (CorpusWriter writer = new CorpusWriter(path, 5, 6, 3)) {
+            writer.write(Field.fromSeed(5, 6, 3, 1L));
+            assertAll("Check that exceptions are thrown when the parameters are not valid",
+                    () -> {
+                        assertThrows(IllegalArgumentException.class, () -> new CorpusWriter(null, 5, 6, 3));
+                        assertThrows(IllegalArgumentException.class, () -> new CorpusWriter(path, 1, 6, 3));
+                        assertThrows(IllegalArgumentException.class, () -> new CorpusWriter(path, 5, 6, 9));
+                        assertThrows(IllegalArgumentException.class, () -> writer.write(null));
+                        assertThrows(IllegalArgumentException.class, () -> writer.write(new Field(6, 5, 3)));
+                        assertThrows(IllegalArgumentException.class, () -> writer.write(new Field(5, 6, 4)));
+                    });
+        }
+        try (Corpus corpus = Corpus.open(path)) {
+            assertAll("Check that boards out of the corpus are rejected",
+                    () -> {
+                        assertThrows(IllegalArgumentException.class, () -> Field.fromCorpus(null, 0));
+                        assertThrows(IllegalArgumentException.class, () -> Field.fromCorpus(corpus, -1));
+                        assertThrows(IllegalArgumentException.class, () -> Field.fromCorpus(corpus, 1));
+                    });
+        }
+    }
+
+    @Test
+    void test_roundTrip() throws IOException {
+        Path path = tempFile();
+        Field played = Field.fromSeed(7, 8, 4, 99L);
+        played.play(played.legalMoves().get(0).getCell());
+        try (CorpusWriter writer = new CorpusWriter(path, 7, 8, 4)) {
+            Iterator<Field> fields = Field.fromSeeds(7, 8, 4, 1000L, 500).iterator();
+            while (fields.hasNext()) {
+                writer.write(fields.next());
+            }
+            writer.write(played);
+            assertEquals(501, writer.size());
+        }
+        // Small chunks so that boards are spread over many mappings.
+        try (Corpus corpus = Corpus.open(path, 1000)) {
+            assertAll("Boards come back with the tiles and the seed they were written with",
+                    () -> {
+                        assertEquals(501, corpus.size());
+                        assertEquals(7, corpus.getNRows());
+                        assertEquals(8, corpus.getNCols());
+                        assertEquals(4, corpus.getNColors());
+                        for (int i = 0; i < 500; i++) {
+                            Field f = Field.fromCorpus(corpus, i);
+                            assertEquals(1000L + i, corpus.getSeed(i));
+                            assertEquals(Field.fromSeed(7, 8, 4, 1000L + i), f);
+                            assertEquals(Field.fromSeed(7, 8, 4, 1000L + i).hash(), f.hash());
+                        }
+                        Field f = Field.fromCorpus(corpus, 500);
+                        played.setScore(0);
+                        assertEquals(played, f);
+                        assertEquals(played.legalMoves(), f.legalMoves());
+                    });
+        }
+    }
+
+    @Test
+    void test_invalidFile() throws IOException {
+        Path path = tempFile();
+        Files.write(path, new byte[]{'S', 'G', 'R', 1});
+        assertThrows(IOException.class, () -> Corpus.open(path));
+        try (CorpusWriter writer = new CorpusWriter(path, 4, 4, 3)) {
+            writer.write(Field.fromSeed(4, 4, 3, 0L));
+            writer.write(Field.fromSeed(4, 4, 3, 1L));
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Corpus.open(path));
+        byte[] forged = bytes.clone();
+        forged[Corpus.COUNT_OFFSET] = 0x7F; // a count so large that the size of its records overflows
+        Files.write(path, forged);
+        assertThrows(IOException.class, () -> Corpus.open(path));
+        byte[] badColor = bytes.clone();
+        badColor[Corpus.HEADER + Long.BYTES] = 9;
+        Files.write(path, badColor);
+        try (Corpus corpus = Corpus.open(path)) {
+            assertThrows(IllegalArgumentException.class, () -> Field.fromCorpus(corpus, 0));
+            assertEquals(Field.fromSeed(4, 4, 3, 1L), Field.fromCorpus(corpus, 1));
+        }
+    }
+}
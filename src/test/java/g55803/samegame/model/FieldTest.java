@@ -2,7 +2,11 @@ package g55803.samegame.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,10 +22,10 @@ public class FieldTest {
                 () -> {
                     // Rows
                     assertThrows(IllegalArgumentException.class, () -> new Field(1, 10, 3));
-                    assertThrows(IllegalArgumentException.class, () -> new Field(20, 10, 3));
                     // Columns
                     assertThrows(IllegalArgumentException.class, () -> new Field(10, 1, 3));
-                    assertThrows(IllegalArgumentException.class, () -> new Field(10, 20, 3));
+                    // Number of tiles
+                    assertThrows(IllegalArgumentException.class, () -> new Field(100_000, 100_000, 3));
                     // Colors
                     assertThrows(IllegalArgumentException.class, () -> new Field(10, 10, 1));
                     assertThrows(IllegalArgumentException.class, () -> new Field(10, 10, 6));
@@ -29,6 +33,55 @@ public class FieldTest {
                 });
     }
 
+    @Test
+    void test_fromSeed() {
+        Field f = Field.fromSeed(10, 12, 4, 42L);
+        assertAll("The same seed gives the same board",
+                () -> {
+                    assertEquals(42L, f.getSeed());
+                    assertEquals(f, Field.fromSeed(10, 12, 4, 42L));
+                    assertEquals(f.hash(), Field.fromSeed(10, 12, 4, 42L).hash());
+                    assertNotEquals(f, Field.fromSeed(10, 12, 4, 43L));
+                    Field random = new Field(10, 12, 4);
+                    assertEquals(random, Field.fromSeed(10, 12, 4, random.getSeed()));
+                    assertEquals(random.getSeed(), new Field(random).getSeed());
+                });
+    }
+
+    @Test
+    void test_fromSeeds() {
+        List<Field> boards = Field.fromSeeds(8, 8, 3, 100L, 50).toList();
+        List<Field> parallel = Field.fromSeeds(8, 8, 3, 100L, 50).parallel().toList();
+        assertAll("Boards are drawn from consecutive seeds, whether the stream is parallel or not",
+                () -> {
+                    assertEquals(50, boards.size());
+                    assertEquals(boards, parallel);
+                    for (int i = 0; i < boards.size(); i++) {
+                        assertEquals(Field.fromSeed(8, 8, 3, 100L + i), boards.get(i));
+                    }
+                    assertThrows(IllegalArgumentException.class, () -> Field.fromSeeds(8, 8, 3, 100L, -1));
+                });
+    }
+
+    @Test
+    void test_largeField() {
+        Field f = Field.fromSeed(300, 400, 5, 1L);
+        Move m = f.play(firstMovable(f));
+        Field single = new Field(50_000, 2, 2);
+        single.setAllColors(Color.RED);
+        single.play(new Position(0, 0));
+        assertAll("Large fields are playable and the score doesn't overflow",
+                () -> {
+                    assertEquals(300, f.getNRows());
+                    assertEquals(400, f.getNCols());
+                    assertFalse(f.isGameOver());
+                    f.undo(m);
+                    assertEquals(Field.fromSeed(300, 400, 5, 1L), f);
+                    assertEquals(100_000L * 99_999L, single.getScore());
+                    assertTrue(single.isGameWon());
+                });
+    }
+
     @Test
     void test_getNRows() {
         Field f = new Field(10, 3, 3);
@@ -88,6 +141,24 @@ public class FieldTest {
         });
     }
 
+    @Test
+    void test_copyField() {
+        Field f = new Field(6, 8, 4);
+        Field copy = new Field(f);
+        Position p = new Position(2, 5);
+        assertAll("A copy holds the same tiles but is independent from the original",
+                () -> {
+                    for (int i = 0; i < f.getNRows(); i++) {
+                        for (int j = 0; j < f.getNCols(); j++) {
+                            assertEquals(f.getTile(new Position(i, j)), copy.getTile(new Position(i, j)));
+                        }
+                    }
+                    copy.setTile(p, null);
+                    assertNotNull(f.getTile(p));
+                    assertThrows(IllegalArgumentException.class, () -> new Field(null));
+                });
+    }
+
     @Test
     void test_getScore() {
         int nRows = 5;
@@ -249,6 +320,417 @@ public class FieldTest {
                 });
     }
 
+    @Test
+    void test_groupCells() {
+        Field f = new Field(4, 5, 2);
+        f.setAllColors(Color.RED);
+        f.setTile(new Position(0, 4), new Tile(Color.BLUE));
+        f.setTile(new Position(3, 0), new Tile(Color.BLUE));
+        assertAll("Cell indices of a group match its positions",
+                () -> {
+                    int[] cells = f.groupCells(new Position(1, 1));
+                    assertEquals(18, cells.length);
+                    Set<Position> positions = new HashSet<>();
+                    for (int cell : cells) {
+                        positions.add(f.toPosition(cell));
+                        assertEquals(cell, f.toIndex(f.toPosition(cell)));
+                    }
+                    assertEquals(f.groupColor(new Position(1, 1)), positions);
+                    assertEquals(0, f.groupCells(new Position(0, 4)).length); // lone tile
+                    assertEquals(0, f.groupCells(new Position(3, 0)).length); // lone tile
+                    assertThrows(IllegalArgumentException.class, () -> f.toPosition(20));
+                });
+    }
+
+    @Test
+    void test_groupSize() {
+        // r r b
+        // r b b
+        Field f = new Field(2, 3, 2);
+        f.setAllColors(Color.RED);
+        f.setTile(new Position(0, 2), new Tile(Color.BLUE));
+        f.setTile(new Position(1, 1), new Tile(Color.BLUE));
+        f.setTile(new Position(1, 2), new Tile(Color.BLUE));
+        assertAll("Group sizes and identifiers follow the moves",
+                () -> {
+                    assertEquals(3, f.groupSize(new Position(0, 0)));
+                    assertEquals(3, f.groupSize(new Position(1, 2)));
+                    assertEquals(f.groupId(new Position(0, 2)), f.groupId(new Position(1, 1)));
+                    assertNotEquals(f.groupId(new Position(0, 0)), f.groupId(new Position(1, 1)));
+                    f.play(new Position(1, 1));
+                    assertEquals(3, f.groupSize(new Position(1, 0)));
+                    assertEquals(0, f.groupSize(new Position(1, 2)));
+                    assertEquals(-1, f.groupId(new Position(1, 2)));
+                    f.setTile(new Position(1, 1), new Tile(Color.BLUE));
+                    assertEquals(1, f.groupSize(new Position(1, 1)));
+                });
+    }
+
+    /**
+     * Plays random games and checks the incrementally maintained groups against a fresh copy after every move.
+     */
+    @Test
+    void test_groupSize_incremental() {
+        for (int game = 0; game < 40; game++) {
+            Field f = new Field(8, 10, 3);
+            List<Move> moves = new ArrayList<>();
+            while (!f.isGameOver()) {
+                checkGroups(f);
+                // Half of the games go on with a copy, which starts from the group index of the field it copies.
+                if (game % 2 == 1) {
+                    f = new Field(f);
+                    moves.clear();
+                }
+                moves.add(f.play(f.toPosition(f.groupCells(firstMovable(f))[0])));
+            }
+            for (int k = moves.size() - 1; k >= 0; k--) {
+                f.undo(moves.get(k));
+                checkGroups(f);
+            }
+        }
+    }
+
+    /**
+     * Checks the incrementally maintained groups of a field against a field holding the same tiles, whose groups are
+     * built from scratch.
+     */
+    private static void checkGroups(Field f) {
+        Field fresh = rebuild(f);
+        for (int i = 0; i < f.getNRows(); i++) {
+            for (int j = 0; j < f.getNCols(); j++) {
+                Position p = new Position(i, j);
+                assertEquals(fresh.groupSize(p), f.groupSize(p));
+                int size = f.groupSize(p);
+                assertEquals(size < 2 ? 0 : size, f.groupColor(p).size());
+                for (Position q : f.groupColor(p)) {
+                    assertEquals(f.groupId(p), f.groupId(q));
+                }
+            }
+        }
+        assertEquals(fresh.isGameOver(), f.isGameOver());
+        assertEquals(fresh.legalMoves().size(), f.legalMoves().size());
+        for (int k = 0; k < f.legalMoves().size(); k++) {
+            assertEquals(fresh.legalMoves().get(k).getCell(), f.legalMoves().get(k).getCell());
+        }
+    }
+
+    @Test
+    void test_legalMoves() {
+        for (long seed = 0; seed < 20; seed++) {
+            Field f = Field.fromSeed(8, 10, 3, seed);
+            while (!f.isGameOver()) {
+                List<Group> expected = new ArrayList<>();
+                for (int cell = 0; cell < f.getNCells(); cell++) {
+                    int[] group = f.groupCells(f.toPosition(cell));
+                    if (group.length >= 2 && Arrays.stream(group).min().getAsInt() == cell) {
+                        expected.add(new Group(cell, f.toPosition(cell), group.length, f.getColor(cell)));
+                    }
+                }
+                List<Group> moves = f.legalMoves();
+                int[] out = new int[f.getNCells() / 2];
+                int n = f.legalMoves(out);
+                assertEquals(expected, moves);
+                assertEquals(moves.size(), f.legalMoveCount());
+                assertEquals(moves.size(), n);
+                for (int k = 0; k < n; k++) {
+                    assertEquals(moves.get(k).getCell(), out[k]);
+                }
+                f.play(moves.get(moves.size() - 1).getCell());
+            }
+            assertEquals(0, f.legalMoves().size());
+        }
+        Field f = new Field(5, 5, 2);
+        f.setAllColors(Color.RED);
+        assertAll("A buffer too small for the moves is rejected",
+                () -> {
+                    assertEquals(List.of(new Group(0, new Position(0, 0), 25, Color.RED)), f.legalMoves());
+                    assertThrows(IllegalArgumentException.class, () -> f.legalMoves(new int[0]));
+                    assertThrows(IllegalArgumentException.class, () -> f.legalMoves(null));
+                });
+    }
+
+    @Test
+    void test_undo() {
+        // field 3 x 3
+        // r g g                    r . .                   . . .
+        // r b g  ==> play green ==> r b .  ==> play blue ==> r . .  ==> play red ==> empty
+        // b b r                    b b r                   r r .
+        Field f = new Field(3, 3, 3);
+        Color[][] colors = {
+                {Color.RED, Color.GREEN, Color.GREEN},
+                {Color.RED, Color.BLUE, Color.GREEN},
+                {Color.BLUE, Color.BLUE, Color.RED}};
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                f.setTile(new Position(i, j), new Tile(colors[i][j]));
+            }
+        }
+        Field start = new Field(f);
+        assertAll("Undoing every move brings the field back to its start",
+                () -> {
+                    Move green = f.play(new Position(0, 2));
+                    assertEquals(3, green.getSize());
+                    assertEquals(Color.GREEN, green.getColor());
+                    assertEquals(6, green.getScore());
+                    Move blue = f.play(new Position(2, 1));
+                    assertEquals(6, blue.getScore());
+                    Move red = f.play(new Position(2, 1));
+                    assertTrue(f.isGameWon());
+                    f.undo(red);
+                    f.undo(blue);
+                    f.undo(green);
+                    assertEquals(start.getScore(), f.getScore());
+                    for (int i = 0; i < 3; i++) {
+                        for (int j = 0; j < 3; j++) {
+                            Position p = new Position(i, j);
+                            assertEquals(start.getTile(p), f.getTile(p));
+                            assertEquals(start.groupSize(p), f.groupSize(p));
+                        }
+                    }
+                    assertThrows(IllegalArgumentException.class, () -> f.undo(null));
+                });
+    }
+
+    /**
+     * Plays random games then undoes every move, checking each intermediate field on the way back.
+     */
+    @Test
+    void test_undo_random() {
+        for (int game = 0; game < 20; game++) {
+            Field f = new Field(9, 7, 3);
+            List<Field> fields = new ArrayList<>();
+            List<Move> moves = new ArrayList<>();
+            while (!f.isGameOver()) {
+                fields.add(new Field(f));
+                moves.add(f.play(firstMovable(f)));
+            }
+            for (int k = moves.size() - 1; k >= 0; k--) {
+                f.undo(moves.get(k));
+                Field expected = fields.get(k);
+                assertEquals(expected.getScore(), f.getScore());
+                for (int i = 0; i < f.getNRows(); i++) {
+                    for (int j = 0; j < f.getNCols(); j++) {
+                        assertEquals(expected.getTile(new Position(i, j)), f.getTile(new Position(i, j)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_hash() {
+        Field f = new Field(6, 6, 3);
+        Field copy = new Field(f);
+        assertAll("Equal fields have equal hashes, moves and undoes keep the hash up to date",
+                () -> {
+                    assertEquals(copy, f);
+                    assertEquals(copy.hash(), f.hash());
+                    Move m = f.play(firstMovable(f));
+                    assertNotEquals(copy, f);
+                    assertNotEquals(copy.hash(), f.hash());
+                    Field rebuilt = new Field(6, 6, 2);
+                    for (int i = 0; i < 6; i++) {
+                        for (int j = 0; j < 6; j++) {
+                            rebuilt.setTile(new Position(i, j), f.getTile(new Position(i, j)));
+                        }
+                    }
+                    assertEquals(f.hash(), rebuilt.hash()); // same tiles, different history
+                    assertNotEquals(f, rebuilt); // but not the same score
+                    rebuilt.setScore(f.getScore());
+                    assertEquals(f, rebuilt);
+                    f.undo(m);
+                    assertEquals(copy.hash(), f.hash());
+                    assertEquals(copy, f);
+                });
+    }
+
+    @Test
+    void test_canonical() {
+        Color[] perm = {Color.BLUE, Color.PURPLE, Color.RED, Color.YELLOW, Color.GREEN};
+        for (long seed = 0; seed < 20; seed++) {
+            Field f = Field.fromSeed(7, 9, 4, seed);
+            List<Move> moves = new ArrayList<>();
+            while (!f.isGameOver()) {
+                // Relabel the colors by hand, in order of first appearance.
+                Field expected = new Field(7, 9, 2);
+                Field permuted = new Field(7, 9, 2);
+                Color[] ranks = new Color[Color.values().length];
+                int next = 0;
+                for (int cell = 0; cell < f.getNCells(); cell++) {
+                    Color c = f.getColor(cell);
+                    Position p = f.toPosition(cell);
+                    if (c != null && ranks[c.ordinal()] == null) {
+                        ranks[c.ordinal()] = Color.values()[next++];
+                    }
+                    expected.setTile(p, c == null ? null : new Tile(ranks[c.ordinal()]));
+                    permuted.setTile(p, c == null ? null : new Tile(perm[c.ordinal()]));
+                }
+                expected.setScore(f.getScore());
+                assertEquals(expected, f.canonical());
+                assertEquals(expected.hash(), f.canonicalHash());
+                assertEquals(f.canonical().hash(), f.canonicalHash());
+                assertEquals(f.canonicalHash(), permuted.canonicalHash());
+                assertEquals(f.canonical().hash(), f.canonical().canonical().hash());
+                moves.add(f.play(f.legalMoves().get(0).getCell()));
+            }
+            for (int k = moves.size() - 1; k >= 0; k--) {
+                f.undo(moves.get(k));
+            }
+            assertEquals(Field.fromSeed(7, 9, 4, seed).canonicalHash(), f.canonicalHash());
+        }
+        Field a = new Field(3, 3, 2);
+        Field b = new Field(3, 3, 2);
+        a.setAllColors(Color.RED);
+        b.setAllColors(Color.RED);
+        b.setTile(new Position(2, 2), new Tile(Color.GREEN));
+        assertNotEquals(a.canonicalHash(), b.canonicalHash());
+    }
+
+    @Test
+    void test_colorCounts() {
+        for (long seed = 0; seed < 20; seed++) {
+            Field f = Field.fromSeed(6, 8, 4, seed);
+            List<Move> moves = new ArrayList<>();
+            long bound = f.scoreUpperBound();
+            while (true) {
+                int[] counts = new int[Color.values().length];
+                for (int cell = 0; cell < f.getNCells(); cell++) {
+                    if (f.getColor(cell) != null) {
+                        counts[f.getColor(cell).ordinal()]++;
+                    }
+                }
+                int remaining = 0;
+                boolean deadEnd = false;
+                long expected = f.getScore();
+                for (Color c : Color.values()) {
+                    int n = counts[c.ordinal()];
+                    assertEquals(n, f.getColorCount(c));
+                    remaining += n;
+                    deadEnd |= n == 1;
+                    expected += (long) n * (n - 1);
+                }
+                assertEquals(remaining, f.getRemainingTiles());
+                assertEquals(deadEnd, f.isDeadEnd());
+                assertEquals(expected, f.scoreUpperBound());
+                assertTrue(f.scoreUpperBound() <= bound);
+                bound = f.scoreUpperBound();
+                if (f.isGameOver()) {
+                    break;
+                }
+                moves.add(f.play(f.legalMoves().get(0).getCell()));
+            }
+            for (int k = moves.size() - 1; k >= 0; k--) {
+                f.undo(moves.get(k));
+            }
+            assertEquals(Field.fromSeed(6, 8, 4, seed).scoreUpperBound(), f.scoreUpperBound());
+            assertEquals(48, f.getRemainingTiles());
+        }
+        Field f = new Field(3, 3, 2);
+        f.setAllColors(Color.RED);
+        f.setTile(new Position(0, 0), new Tile(Color.BLUE));
+        assertAll("Counts follow the tiles set by hand",
+                () -> {
+                    assertEquals(8, f.getColorCount(Color.RED));
+                    assertEquals(1, f.getColorCount(Color.BLUE));
+                    assertTrue(f.isDeadEnd());
+                    assertEquals(56, f.scoreUpperBound());
+                    assertThrows(IllegalArgumentException.class, () -> f.getColorCount(null));
+                });
+    }
+
+    /**
+     * Finds the first tile that can be played, column by column.
+     *
+     * @param f the field.
+     * @return the position of the tile.
+     */
+    private Position firstMovable(Field f) {
+        for (int j = 0; j < f.getNCols(); j++) {
+            for (int i = 0; i < f.getNRows(); i++) {
+                if (f.groupSize(new Position(i, j)) >= 2) {
+                    return new Position(i, j);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds a field holding the same tiles as another one with setTile only, so that its hash and counts are built
+     * tile by tile rather than kept up to date by moves.
+     */
+    private static Field rebuild(Field f) {
+        Field rebuilt = new Field(f.getNRows(), f.getNCols(), f.getNColors());
+        for (int i = 0; i < f.getNRows(); i++) {
+            for (int j = 0; j < f.getNCols(); j++) {
+                rebuilt.setTile(new Position(i, j), f.getTile(new Position(i, j)));
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Checks that the hash and the color counts of a field match its tiles.
+     */
+    private static void checkTiles(Field f) {
+        Field rebuilt = rebuild(f);
+        assertEquals(rebuilt.hash(), f.hash());
+        for (Color c : Color.values()) {
+            if (c.ordinal() < f.getNColors()) {
+                assertEquals(rebuilt.getColorCount(c), f.getColorCount(c));
+            }
+        }
+    }
+
+    @Test
+    void test_play_floatingTile() {
+        // RRG
+        // GG.
+        Field f = new Field(2, 3, 2);
+        f.setTile(new Position(0, 0), new Tile(Color.RED));
+        f.setTile(new Position(0, 1), new Tile(Color.RED));
+        f.setTile(new Position(0, 2), new Tile(Color.GREEN));
+        f.setTile(new Position(1, 0), new Tile(Color.GREEN));
+        f.setTile(new Position(1, 1), new Tile(Color.GREEN));
+        f.setTile(new Position(1, 2), null);
+        Field before = new Field(f);
+        Move m = f.play(new Position(0, 1));
+        assertAll("A floating tile set by hand stays on the board and in the hash and counts",
+                () -> {
+                    assertEquals(new Tile(Color.GREEN), f.getTile(new Position(0, 2)));
+                    assertEquals(3, f.getColorCount(Color.GREEN));
+                    checkTiles(f);
+                    f.undo(m);
+                    assertEquals(before, f);
+                    checkTiles(f);
+                });
+    }
+
+    @Test
+    void test_play_setTile_random() {
+        Random random = new Random(7);
+        for (int game = 0; game < 300; game++) {
+            Field f = new Field(4, 5, 3);
+            for (int k = 0; k < 6; k++) {
+                Position p = new Position(random.nextInt(4), random.nextInt(5));
+                f.setTile(p, random.nextBoolean() ? null : new Tile(Color.values()[random.nextInt(3)]));
+            }
+            List<Field> fields = new ArrayList<>();
+            List<Move> moves = new ArrayList<>();
+            Position p;
+            while ((p = firstMovable(f)) != null) {
+                fields.add(new Field(f));
+                moves.add(f.play(p));
+                checkTiles(f);
+            }
+            for (int k = moves.size() - 1; k >= 0; k--) {
+                f.undo(moves.get(k));
+                assertEquals(fields.get(k), f);
+                checkTiles(f);
+            }
+        }
+    }
+
     // Starting from this part, I'll try to put the game in "difficult" situations.
 
     @Test
@@ -0,0 +1,125 @@
+package g55803.samegame.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class GameEventTest {
+
+    /**
+     * Lists the columns whose tiles differ between two fields of the same size.
+     */
+    private static List<Integer> diff(Field a, Field b) {
+        List<Integer> cols = new ArrayList<>();
+        for (int col = 0; col < a.getNCols(); col++) {
+            for (int row = 0; row < a.getNRows(); row++) {
+                if (a.getColor(a.toIndex(new Position(row, col))) != b.getColor(b.toIndex(new Position(row, col)))) {
+                    cols.add(col);
+                    break;
+                }
+            }
+        }
+        return cols;
+    }
+
+    @Test
+    void test_events() {
+        Facade game = new Facade();
+        game.newField(6, 8, 3, 21L);
+        List<GameEvent> events = new ArrayList<>();
+        game.getEvents().subscribe(events::add, Runnable::run, null);
+        List<Field> boards = new ArrayList<>();
+        boards.add(game.copyField());
+        while (!game.isGameOver() && !game.isGameWon()) {
+            Field f = game.copyField();
+            game.play(f.toPosition(f.legalMoves().get(f.legalMoveCount() - 1).getCell()));
+            boards.add(game.copyField());
+        }
+        game.undo();
+        game.redo();
+        int n = boards.size() - 1;
+        assertEquals(n + 2, events.size());
+        for (int k = 0; k < n; k++) {
+            GameEvent e = events.get(k);
+            Field before = boards.get(k);
+            Field after = boards.get(k + 1);
+            // Columns can be marked without changing, when a dropped column had the same tiles as the next one.
+            for (int col : diff(before, after)) {
+                assertTrue(e.isColumnChanged(col));
+            }
+            assertEquals(events.get(0).getVersion() + k, e.getVersion());
+            assertEquals(after.getScore(), e.getScore());
+            assertEquals(after.getScore() - before.getScore(), e.getScoreDelta());
+            assertEquals(before.getRemainingTiles() - after.getRemainingTiles(), e.getCells().length);
+        }
+        GameEvent last = events.get(n - 1);
+        GameEvent undo = events.get(n);
+        GameEvent redo = events.get(n + 1);
+        GameEvent merged = events.get(0).merge(events.get(1));
+        assertAll("Check the state of the events, and that undo reverts what the move changed",
+                () -> {
+                    assertTrue(last.getState() == State.WON || last.getState() == State.GAME_OVER);
+                    assertEquals(State.REDO, redo.getState());
+                    assertEquals(State.REDO, game.getState());
+                    assertEquals(State.UNDO, undo.getState());
+                    assertEquals(-last.getScoreDelta(), undo.getScoreDelta());
+                    assertArrayEquals(last.getCells(), undo.getCells());
+                    assertArrayEquals(last.getChangedColumns(), undo.getChangedColumns());
+                    assertEquals(2, merged.getCount());
+                    assertEquals(events.get(1).getVersion(), merged.getVersion());
+                    assertEquals(events.get(0).getScoreDelta() + events.get(1).getScoreDelta(),
+                            merged.getScoreDelta());
+                    assertEquals(0, merged.getCells().length);
+                    for (int col : diff(boards.get(0), boards.get(2))) {
+                        assertTrue(merged.isColumnChanged(col));
+                    }
+                });
+        game.newField(4, 5, 3, 21L);
+        assertEquals(State.STARTED, game.getState());
+        GameEvent reset = events.get(events.size() - 1);
+        GameEvent afterReset = redo.merge(reset);
+        assertAll("A new board is published as a reset of every column",
+                () -> {
+                    assertEquals(n + 3, events.size());
+                    assertTrue(reset.isReset());
+                    assertFalse(redo.isReset());
+                    assertEquals(game.getVersion(), reset.getVersion());
+                    assertEquals(redo.getVersion() + 1, reset.getVersion());
+                    assertEquals(State.STARTED, reset.getState());
+                    assertArrayEquals(new int[]{0, 1, 2, 3, 4}, reset.getChangedColumns());
+                    assertTrue(afterReset.isReset());
+                    assertEquals(0, afterReset.getScoreDelta());
+                    assertArrayEquals(reset.getChangedColumns(), afterReset.getChangedColumns());
+                });
+    }
+
+    @Test
+    void test_stateKept() {
+        Facade game = new Facade();
+        game.newField(6, 8, 3, 21L);
+        while (!game.isGameOver() && !game.isGameWon()) {
+            Field f = game.copyField();
+            game.play(f.toPosition(f.legalMoves().get(0).getCell()));
+        }
+        State end = game.getState();
+        // A click on a lone tile of an ended game must not bring it back to a started state.
+        for (int cell = 0; cell < game.getNRows() * game.getNCols(); cell++) {
+            Position p = new Position(cell / game.getNCols(), cell % game.getNCols());
+            if (game.getTile(p) != null) {
+                game.play(p);
+                break;
+            }
+        }
+        assertAll("Check that the end of a game is kept",
+                () -> {
+                    assertTrue(end == State.WON || end == State.GAME_OVER);
+                    assertEquals(end, game.getState());
+                });
+    }
+}
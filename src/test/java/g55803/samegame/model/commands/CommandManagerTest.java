@@ -0,0 +1,56 @@
+package g55803.samegame.model.commands;
+
+import g55803.samegame.model.Color;
+import g55803.samegame.model.Facade;
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class CommandManagerTest {
+
+    @Test
+    void test_failedCommand() {
+        Field f = Field.fromColors(2, 3, 2, new Color[]{Color.RED, Color.RED, null, Color.GREEN, null, null});
+        CommandManager manager = new CommandManager();
+        manager.execute(new PlayCommand(f, new Position(1, 0)));
+        manager.undo();
+        assertThrows(IllegalArgumentException.class, () -> manager.execute(new PlayCommand(f, new Position(0, 2))));
+        assertAll("Check that a failed command is not kept and leaves the redo history alone",
+                () -> {
+                    assertTrue(manager.isEmptyUndo());
+                    assertFalse(manager.isEmptyRedo());
+                    assertTrue(manager.getHistory().isEmpty());
+                });
+    }
+
+    @Test
+    void test_undoAfterFailedPlay() {
+        Facade game = new Facade();
+        game.newField(6, 8, 3, 21L);
+        Position empty = null;
+        while (empty == null) {
+            Field f = game.copyField();
+            game.play(f.toPosition(f.legalMoves().get(0).getCell()));
+            for (int col = 0; col < game.getNCols() && empty == null; col++) {
+                if (game.getTile(new Position(0, col)) == null) {
+                    empty = new Position(0, col);
+                }
+            }
+        }
+        Position p = empty;
+        long hash = game.getHash();
+        assertThrows(IllegalArgumentException.class, () -> game.play(p));
+        game.undo();
+        assertAll("Check that a failed play is not undone, the move before it is",
+                () -> {
+                    assertNotEquals(hash, game.getHash());
+                    game.redo();
+                    assertEquals(hash, game.getHash());
+                });
+    }
+}
@@ -0,0 +1,202 @@
+package g55803.samegame.model.record;
+
+import g55803.samegame.model.Color;
+import g55803.samegame.model.Facade;
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
+import g55803.samegame.model.Position;
+import g55803.samegame.model.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class GameRecordTest {
+
+    @Test
+    void test_GameRecordCreation() {
+        Field f = Field.fromSeed(5, 5, 3, 1L);
+        assertAll("Check that exceptions are thrown when the parameters are not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> GameRecord.of(null, new int[0]));
+                    assertThrows(IllegalArgumentException.class, () -> GameRecord.of(f, (int[]) null));
+                    assertThrows(IllegalArgumentException.class, () -> GameRecord.of(f, new int[]{0}).replay(f, 2));
+                    assertThrows(IllegalArgumentException.class, () -> new RecordWriter(null));
+                    assertThrows(IllegalArgumentException.class, () -> new RecordReader(null));
+                    assertThrows(IllegalStateException.class,
+                            () -> new RecordWriter(new ByteArrayOutputStream()).move(0));
+                    assertThrows(IllegalStateException.class,
+                            () -> new RecordWriter(new ByteArrayOutputStream()).end());
+                });
+    }
+
+    @Test
+    void test_roundTrip_seeded() throws IOException {
+        Field start = Field.fromSeed(12, 16, 4, 42L);
+        List<Move> played = playOut(new Field(start));
+        GameRecord record = GameRecord.of(start, played);
+        GameRecord read = readOne(write(record));
+        Field end = new Field(start);
+        for (Move m : played) {
+            end.play(m.getCell());
+        }
+        assertAll("A seeded board is stored by its seed and replays to the same board",
+                () -> {
+                    assertTrue(record.isSeeded());
+                    assertTrue(read.isSeeded());
+                    assertEquals(42L, read.getSeed());
+                    assertArrayEquals(record.getMoves(), read.getMoves());
+                    assertEquals(start, read.start());
+                    assertEquals(end, read.replay());
+                    assertEquals(end.hash(), read.replay().hash());
+                });
+    }
+
+    @Test
+    void test_roundTrip_cells() throws IOException {
+        Field start = Field.fromSeed(7, 9, 5, 3L);
+        start.setTile(new Position(6, 0), null);
+        start.setTile(new Position(0, 4), new Tile(Color.RED));
+        start.setScore(17);
+        GameRecord record = GameRecord.of(start, playOut(new Field(start)));
+        GameRecord read = readOne(write(record));
+        assertAll("A board set by hand is stored by its cells, even when its tiles float",
+                () -> {
+                    assertFalse(record.isSeeded());
+                    assertFalse(read.isSeeded());
+                    assertEquals(17, read.getStartScore());
+                    assertEquals(start, read.start());
+                    assertEquals(record.replay(), read.replay());
+                    assertEquals(0, read.replay().legalMoveCount());
+                });
+    }
+
+    @Test
+    void test_stream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<GameRecord> records = new ArrayList<>();
+        try (RecordWriter writer = new RecordWriter(bytes)) {
+            for (long seed = 0; seed < 20; seed++) {
+                Field start = Field.fromSeed(10, 10, 3, seed);
+                List<Move> played = playOut(new Field(start));
+                records.add(GameRecord.of(start, played));
+                // Half of the records are written while the game is played.
+                if (seed % 2 == 0) {
+                    writer.write(records.get(records.size() - 1));
+                } else {
+                    writer.begin(start);
+                    for (Move m : played) {
+                        writer.move(m.getCell());
+                    }
+                    writer.end();
+                }
+            }
+        }
+        try (RecordReader reader = new RecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (GameRecord expected : records) {
+                GameRecord read = reader.read();
+                assertArrayEquals(expected.getMoves(), read.getMoves());
+                assertEquals(expected.replay(), read.replay());
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void test_corrupt() throws IOException {
+        byte[] bytes = write(GameRecord.of(Field.fromSeed(5, 5, 3, 9L), new int[]{0, 3}));
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = 'X';
+        byte[] badVersion = bytes.clone();
+        badVersion[3] = 42;
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        byte[] outside = bytes.clone();
+        outside[outside.length - 2] = 26;
+        assertAll("Check that invalid streams are rejected",
+                () -> {
+                    assertThrows(IOException.class, () -> readOne(badMagic));
+                    assertThrows(IOException.class, () -> readOne(badVersion));
+                    assertThrows(EOFException.class, () -> readOne(truncated));
+                    assertThrows(IOException.class, () -> readOne(outside));
+                });
+    }
+
+    @Test
+    void test_corruptCells() throws IOException {
+        Field start = Field.fromSeed(4, 4, 3, 9L);
+        start.setTile(new Position(0, 0), null);
+        byte[] bytes = write(GameRecord.of(start, new int[0]));
+        // The cells follow the magic, the version, the flags and the one byte varints of the size and score.
+        byte[] badColor = bytes.clone();
+        badColor[9] = (byte) 0x17;
+        byte[] badColors = bytes.clone();
+        badColors[7] = 9;
+        assertAll("Check that colors out of range are rejected when read",
+                () -> {
+                    assertFalse(readOne(bytes).isSeeded());
+                    IOException e = assertThrows(IOException.class, () -> readOne(badColor));
+                    assertTrue(e.getMessage().contains("out of range"));
+                    assertThrows(IOException.class, () -> readOne(badColors));
+                });
+    }
+
+    @Test
+    void test_recordAfterFailedPlay() {
+        Facade game = new Facade();
+        game.newField(5, 5, 3, 9L);
+        Field f = game.copyField();
+        game.play(f.toPosition(f.legalMoves().get(0).getCell()));
+        Position empty = new Position(0, 0);
+        for (int col = 0; col < game.getNCols(); col++) {
+            if (game.getTile(new Position(0, col)) == null) {
+                empty = new Position(0, col);
+            }
+        }
+        Position p = empty;
+        assertNull(game.getTile(p));
+        assertThrows(IllegalArgumentException.class, () -> game.play(p));
+        GameRecord record = game.getRecord();
+        assertAll("Check that the record only holds the moves played",
+                () -> {
+                    assertEquals(1, record.getMoveCount());
+                    assertEquals(game.getHash(), record.replay().hash());
+                });
+    }
+
+    /**
+     * Plays the first legal move until the game is over.
+     *
+     * @param f the field to play on.
+     * @return the moves played.
+     */
+    private static List<Move> playOut(Field f) {
+        List<Move> played = new ArrayList<>();
+        int[] moves = new int[f.getNCells() / 2 + 1];
+        while (f.legalMoves(moves) > 0) {
+            played.add(f.play(moves[0]));
+        }
+        return played;
+    }
+
+    private static byte[] write(GameRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RecordWriter writer = new RecordWriter(bytes)) {
+            writer.write(record);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static GameRecord readOne(byte[] bytes) throws IOException {
+        return new RecordReader(new ByteArrayInputStream(bytes)).read();
+    }
+}
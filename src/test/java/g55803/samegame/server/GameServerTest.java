@@ -0,0 +1,158 @@
+package g55803.samegame.server;
+
+import g55803.samegame.model.Field;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class GameServerTest {
+
+    @Test
+    void test_session() {
+        SessionRegistry registry = new SessionRegistry();
+        Session s = new Session(registry);
+        Session other = new Session(registry);
+        Field f = Field.fromSeed(4, 5, 3, 12L);
+        int cell = f.legalMoves().get(0).getCell();
+        int row = f.toPosition(cell).getRow();
+        int col = f.toPosition(cell).getCol();
+        long gain = f.play(cell).getScore();
+        assertAll("Check the answers of the protocol",
+                () -> {
+                    assertEquals("OK 12", s.handle("NEW 4 5 3 12"));
+                    assertTrue(s.handle("state").startsWith("OK 4 5 0 STARTED "));
+                    assertEquals(4 * 5, s.handle("STATE").split(" ")[5].length());
+                    assertEquals("OK " + gain + " " + gain + " PLAY", s.handle("PLAY " + row + " " + col));
+                    assertEquals("OK " + gain, s.handle("SCORE"));
+                    assertEquals("OK 0", s.handle("UNDO"));
+                    assertEquals("OK " + gain, s.handle("REDO"));
+                    assertTrue(s.handle("REDO").startsWith("ERR"));
+                    assertTrue(s.handle("PLAY 9 9").startsWith("ERR"));
+                    assertTrue(s.handle("PLAY a b").startsWith("ERR"));
+                    assertTrue(s.handle("PLAY 1").startsWith("ERR"));
+                    assertTrue(s.handle("NEW 1 5 3").startsWith("ERR"));
+                    assertTrue(s.handle("NEW 1000 5 3").startsWith("ERR"));
+                    assertTrue(s.handle("JUMP").startsWith("ERR"));
+                    String token = s.handle("SESSION").split(" ")[1];
+                    assertEquals(16, token.length());
+                    assertEquals("OK " + token, other.handle("RESUME " + token));
+                    assertEquals("OK " + gain, other.handle("SCORE"));
+                    assertEquals(1, registry.size());
+                    assertTrue(other.handle("RESUME 999").startsWith("ERR"));
+                    String next = String.format("%016x", Long.parseUnsignedLong(token, 16) + 1);
+                    assertTrue(other.handle("RESUME " + next).startsWith("ERR")); // tokens are not sequential
+                    assertFalse(s.isOver());
+                    assertEquals("BYE", s.handle("QUIT"));
+                    assertTrue(s.isOver());
+                    assertEquals(0, registry.size());
+                    assertTrue(other.handle("SCORE").startsWith("ERR"));
+                });
+    }
+
+    @Test
+    void test_sessionLifetime() {
+        SessionRegistry registry = new SessionRegistry(2);
+        Session idle = new Session(registry);
+        Session unshared = new Session(registry);
+        Session shared = new Session(registry);
+        Session other = new Session(registry);
+        Session full = new Session(registry);
+        assertAll("A game only exists once it is used and goes with its connection unless its token was handed out",
+                () -> {
+                    idle.close();
+                    assertEquals(0, registry.size());
+                    assertEquals("OK 0", unshared.handle("SCORE"));
+                    assertEquals(1, registry.size());
+                    unshared.close();
+                    assertEquals(0, registry.size());
+                    String token = shared.handle("SESSION").split(" ")[1];
+                    shared.close();
+                    assertEquals(1, registry.size());
+                    assertEquals("OK 0", other.handle("SCORE"));
+                    assertEquals("ERR The server can't host more than 2 games.", full.handle("SCORE"));
+                    assertNull(full.takeFailure());
+                    assertEquals("OK " + token, full.handle("RESUME " + token));
+                    assertEquals("OK 0", full.handle("SCORE"));
+                    assertEquals(2, registry.size());
+                });
+    }
+
+    @Test
+    void test_tcp() throws Exception {
+        try (GameServer server = GameServer.tcp(0)) {
+            server.start();
+            List<Client> clients = new ArrayList<>();
+            for (int k = 0; k < 200; k++) {
+                clients.add(new Client(server.getAddress()));
+            }
+            // Every session has its own game, requests sent before the answers are read are answered in order.
+            for (int k = 0; k < clients.size(); k++) {
+                clients.get(k).send("NEW 6 6 3 " + k + "\r\nSCORE");
+            }
+            for (int k = 0; k < clients.size(); k++) {
+                assertEquals("OK " + k, clients.get(k).read());
+                assertEquals("OK 0", clients.get(k).read());
+            }
+            assertEquals(200, server.getConnectionCount());
+            for (Client c : clients) {
+                c.send("QUIT");
+                assertEquals("BYE", c.read());
+                assertNull(c.read());
+            }
+        }
+    }
+
+    @Test
+    void test_unix() throws Exception {
+        Path dir = Files.createTempDirectory("samegame");
+        Path socket = dir.resolve("server.sock");
+        try (GameServer server = GameServer.unix(socket)) {
+            server.start();
+            Client c = new Client(server.getAddress());
+            // No line break, so that nothing is left unread when the server ends the connection.
+            c.out.write("x".repeat(GameServer.LINE_MAX).getBytes(StandardCharsets.US_ASCII));
+            assertTrue(c.read().startsWith("ERR"));
+            assertNull(c.read());
+        }
+        assertFalse(Files.exists(socket));
+        Files.delete(dir);
+    }
+
+    /**
+     * A client of the server, talking over a blocking socket.
+     */
+    private static final class Client {
+        private final OutputStream out;
+        private final BufferedReader in;
+
+        Client(SocketAddress address) throws IOException {
+            SocketChannel channel = SocketChannel.open(address);
+            out = Channels.newOutputStream(channel);
+            in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.US_ASCII));
+        }
+
+        void send(String line) throws IOException {
+            out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package g55803.samegame.server;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
+import g55803.samegame.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class SessionRegistryTest {
+
+    @Test
+    void test_unknownSession() {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create();
+        assertAll("Check that exceptions are thrown for games that are not hosted",
+                () -> {
+                    assertEquals("There is no game with the token " + String.format("%016x", id + 1) + ".",
+                            assertThrows(IllegalArgumentException.class,
+                                    () -> registry.apply(id + 1, game -> 0)).getMessage());
+                    assertThrows(IllegalArgumentException.class, () -> new SessionRegistry(0));
+                    assertTrue(registry.remove(id));
+                    assertFalse(registry.remove(id));
+                    assertThrows(IllegalArgumentException.class, () -> registry.apply(id, game -> 0));
+                });
+    }
+
+    @Test
+    void test_evict() {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create();
+        Field f = Field.fromSeed(8, 8, 3, 5L);
+        registry.apply(id, game -> {
+            game.newField(8, 8, 3, 5L);
+            Move last = null;
+            for (int k = 0; k < 3; k++) {
+                Position p = f.toPosition(f.legalMoves().get(0).getCell());
+                last = f.play(p);
+                game.play(p);
+            }
+            f.undo(last);
+            game.undo();
+            return null;
+        });
+        Field afterUndo = new Field(f);
+        long score = registry.apply(id, game -> game.getScore());
+        long hash = afterUndo.hash();
+        assertEquals(1, registry.evictIdle(Duration.ZERO));
+        assertAll("An evicted game comes back with its board, its score and its undo history",
+                () -> {
+                    assertEquals(0, registry.liveCount());
+                    assertEquals(1, registry.size());
+                    assertEquals(score, (long) registry.apply(id, game -> game.getScore()));
+                    assertEquals(1, registry.liveCount());
+                    assertEquals(hash, (long) registry.apply(id, game -> game.getHash()));
+                    assertFalse(registry.apply(id, game -> game.isEmptyUndo()));
+                    assertEquals(0, registry.evictIdle(Duration.ofHours(1)));
+                    assertEquals(0, registry.expire(Duration.ofHours(1)));
+                    assertEquals(1, registry.expire(Duration.ZERO));
+                    assertEquals(0, registry.size());
+                });
+    }
+
+    @Test
+    void test_usedAfterScan() {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create();
+        Duration idle = Duration.ofNanos(1);
+        // The scan found the game idle, then a request used it before the game was locked.
+        long scan = System.nanoTime() - idle.toNanos();
+        registry.apply(id, game -> game.getScore());
+        assertAll("A game used since the scan is neither evicted nor removed",
+                () -> {
+                    assertFalse(registry.evictIdle(id, idle, scan));
+                    assertFalse(registry.expire(id, idle, scan));
+                    assertEquals(1, registry.liveCount());
+                    assertEquals(0L, (long) registry.apply(id, game -> game.getScore()));
+                    assertTrue(registry.expire(id, Duration.ZERO, System.nanoTime()));
+                    assertFalse(registry.expire(id, Duration.ZERO, System.nanoTime()));
+                    assertEquals(0, registry.size());
+                });
+    }
+
+    @Test
+    void test_concurrent() throws InterruptedException {
+        SessionRegistry registry = new SessionRegistry();
+        long shared = registry.create();
+        registry.apply(shared, game -> {
+            game.newField(2, 2, 2, 0L);
+            return null;
+        });
+        int[] counter = new int[1];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                long own = registry.create();
+                for (int k = 0; k < 1000; k++) {
+                    registry.apply(own, game -> game.getScore());
+                    // A plain increment, only correct if requests on a game never run at the same time.
+                    registry.apply(shared, game -> counter[0]++);
+                    if (k % 100 == 0) {
+                        registry.evictIdle(Duration.ZERO);
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(8 * 1000, counter[0]);
+        assertEquals(9, registry.size());
+    }
+}
@@ -0,0 +1,50 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class BeamSearchTest {
+
+    @Test
+    void test_BeamSearchCreation() {
+        assertAll("Check that exceptions are thrown when the budget is not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> new BeamSearch(0, 10, Duration.ofSeconds(1)));
+                    assertThrows(IllegalArgumentException.class, () -> new BeamSearch(10, 0, Duration.ofSeconds(1)));
+                    assertThrows(IllegalArgumentException.class, () -> new BeamSearch(10, 10, Duration.ZERO));
+                    assertThrows(IllegalArgumentException.class, () -> new BeamSearch(10, 10, null));
+                });
+    }
+
+    @Test
+    void test_solve_replay() {
+        Field f = new Field(8, 8, 3);
+        Field copy = new Field(f);
+        Solution s = new BeamSearch(20, Long.MAX_VALUE, Duration.ofMinutes(1)).solve(f);
+        assertAll("Replaying the moves of a solution reaches its score and leaves the field untouched",
+                () -> {
+                    assertEquals(copy, f);
+                    for (Position p : s.getMoves()) {
+                        assertTrue(copy.groupSize(p) >= 2);
+                        copy.play(p);
+                    }
+                    assertEquals(s.getScore(), copy.getScore());
+                    assertTrue(s.getScore() > 0);
+                });
+    }
+
+    @Test
+    void test_solve_nodeBudget() {
+        Field f = new Field(10, 10, 3);
+        Solution s = new BeamSearch(1000, 1, Duration.ofMinutes(1)).solve(f);
+        assertTrue(s.getMoves().size() <= 1);
+    }
+}
@@ -0,0 +1,73 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Move;
+import g55803.samegame.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class ExactSolverTest {
+
+    @Test
+    void test_ExactSolverCreation() {
+        assertAll("Check that exceptions are thrown when the parameters are not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> new ExactSolver(0));
+                    assertThrows(IllegalArgumentException.class, () -> new ExactSolver().solve(null));
+                });
+    }
+
+    @Test
+    void test_solve_optimal() {
+        for (long seed = 0; seed < 30; seed++) {
+            Field f = Field.fromSeed(4, 5, 3, seed);
+            Field copy = new Field(f);
+            Solution s = new ExactSolver(4).solve(f);
+            assertEquals(copy, f);
+            assertEquals(bruteForce(copy), s.getScore());
+            for (Position p : s.getMoves()) {
+                assertTrue(copy.groupSize(p) >= 2);
+                copy.play(p);
+            }
+            assertEquals(s.getScore(), copy.getScore());
+            assertEquals(0, copy.legalMoveCount());
+        }
+    }
+
+    @Test
+    void test_solve_beatsHeuristics() {
+        Field f = Field.fromSeed(6, 6, 3, 11L);
+        Solution exact = new ExactSolver().solve(f);
+        Solution beam = new BeamSearch(50, Long.MAX_VALUE, Duration.ofMinutes(1)).solve(f);
+        assertAll("No heuristic player beats the optimal score, whatever the number of threads",
+                () -> {
+                    assertTrue(exact.getScore() >= beam.getScore());
+                    assertTrue(exact.getScore() <= f.scoreUpperBound());
+                    assertEquals(exact.getScore(), new ExactSolver(1).solve(f).getScore());
+                });
+    }
+
+    /**
+     * Finds the best score by trying every sequence of moves.
+     *
+     * @param f the field.
+     * @return the best final score.
+     */
+    private long bruteForce(Field f) {
+        int[] moves = new int[f.legalMoveCount()];
+        int n = f.legalMoves(moves);
+        long best = f.getScore();
+        for (int k = 0; k < n; k++) {
+            Move m = f.play(moves[k]);
+            best = Math.max(best, bruteForce(f));
+            f.undo(m);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,86 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Color;
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Position;
+import g55803.samegame.model.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class MctsPlayerTest {
+
+    @Test
+    void test_MctsPlayerCreation() {
+        assertAll("Check that exceptions are thrown when the settings are not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(0, RolloutPolicy.random(), 0.4, 16));
+                    assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(2, null, 0.4, 16));
+                    assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(2, RolloutPolicy.random(), -1, 16));
+                    assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(2, RolloutPolicy.random(), 0.4, 40));
+                    assertThrows(IllegalArgumentException.class, () -> RolloutPolicy.greedy(2));
+                });
+    }
+
+    @Test
+    void test_bestMove_legal() {
+        Field f = new Field(8, 8, 3);
+        Field copy = new Field(f);
+        MctsPlayer player = new MctsPlayer(4, RolloutPolicy.greedy(0.2), 0.4, 16);
+        Position p = player.bestMove(f, Duration.ofMillis(200));
+        Position hint = new MctsPlayer().bestMove(f, Duration.ofMillis(200));
+        assertAll("The best move can be played and the field is left untouched",
+                () -> {
+                    assertEquals(copy, f);
+                    assertNotNull(p);
+                    assertTrue(f.groupSize(p) >= 2);
+                    assertTrue(f.groupSize(hint) >= 2);
+                });
+    }
+
+    @Test
+    void test_bestMove_obvious() {
+        // r r r r
+        // b g b g  only the red group can be played
+        Field f = new Field(2, 4, 3);
+        Color[] bottom = {Color.BLUE, Color.GREEN};
+        for (int j = 0; j < 4; j++) {
+            f.setTile(new Position(0, j), new Tile(Color.RED));
+            f.setTile(new Position(1, j), new Tile(bottom[j % 2]));
+        }
+        MctsPlayer player = new MctsPlayer(2, RolloutPolicy.random(), 0.4, 10);
+        assertAll("A single move is found right away and no move gives null",
+                () -> {
+                    assertEquals(Color.RED, f.getTile(player.bestMove(f, Duration.ofMillis(50))).getColor());
+                    f.play(new Position(0, 0));
+                    assertNull(player.bestMove(f, Duration.ofMillis(50)));
+                });
+    }
+
+    @Test
+    void test_bestMove_interrupted() {
+        Field f = Field.fromSeed(15, 15, 3, 4L);
+        MctsPlayer player = new MctsPlayer(2, RolloutPolicy.random(), 0.4, 16);
+        long begin = System.nanoTime();
+        Thread.currentThread().interrupt();
+        Position p;
+        boolean interrupted;
+        try {
+            p = player.bestMove(f, Duration.ofSeconds(30));
+        } finally {
+            interrupted = Thread.interrupted();
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertAll("An interrupted search stops early with a legal move and keeps the interrupt",
+                () -> {
+                    assertTrue(interrupted);
+                    assertTrue(elapsed < Duration.ofSeconds(10).toNanos());
+                    assertTrue(f.groupSize(p) >= 2);
+                });
+    }
+}
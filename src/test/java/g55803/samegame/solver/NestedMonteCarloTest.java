@@ -0,0 +1,54 @@
+package g55803.samegame.solver;
+
+import g55803.samegame.model.Field;
+import g55803.samegame.model.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class NestedMonteCarloTest {
+
+    @Test
+    void test_NestedMonteCarloCreation() {
+        assertAll("Check that exceptions are thrown when the parameters are not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> new NestedMonteCarlo(0, 1L));
+                    assertThrows(IllegalArgumentException.class,
+                            () -> new NestedMonteCarlo(1, 0, 1L, RolloutPolicy.random()));
+                    assertThrows(IllegalArgumentException.class, () -> new NestedMonteCarlo(1, 1, 1L, null));
+                    assertThrows(IllegalArgumentException.class, () -> new NestedMonteCarlo(1, 1L).solve(null));
+                });
+    }
+
+    @Test
+    void test_solve_replay() {
+        Field f = new Field(8, 8, 3);
+        Field copy = new Field(f);
+        Solution s = new NestedMonteCarlo(2, 42L).solve(f);
+        assertAll("Replaying the moves of a solution reaches its score and leaves the field untouched",
+                () -> {
+                    assertEquals(copy, f);
+                    for (Position p : s.getMoves()) {
+                        assertTrue(copy.groupSize(p) >= 2);
+                        copy.play(p);
+                    }
+                    assertEquals(s.getScore(), copy.getScore());
+                    assertTrue(s.getScore() > 0);
+                });
+    }
+
+    @Test
+    void test_solve_reproducible() {
+        Field f = new Field(8, 8, 3);
+        Solution one = new NestedMonteCarlo(2, 1, 7L, RolloutPolicy.random()).solve(f);
+        Solution four = new NestedMonteCarlo(2, 4, 7L, RolloutPolicy.random()).solve(f);
+        assertAll("The same seed gives the same solution whatever the number of threads",
+                () -> {
+                    assertEquals(one.getScore(), four.getScore());
+                    assertEquals(one.getMoves(), four.getMoves());
+                });
+    }
+}
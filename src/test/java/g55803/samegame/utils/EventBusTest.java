@@ -0,0 +1,113 @@
+package g55803.samegame.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nathan Furnal
+ */
+public class EventBusTest {
+
+    @Test
+    void test_EventBusCreation() {
+        EventBus<Integer> bus = new EventBus<>();
+        assertAll("Check that exceptions are thrown when the parameters are not valid",
+                () -> {
+                    assertThrows(IllegalArgumentException.class, () -> new EventBus<Integer>(null));
+                    assertThrows(IllegalArgumentException.class, () -> bus.subscribe(null));
+                    assertThrows(IllegalArgumentException.class, () -> bus.subscribe(e -> {
+                    }, null, null));
+                    assertThrows(IllegalArgumentException.class, () -> bus.publish(null));
+                });
+    }
+
+    @Test
+    void test_order() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        EventBus<Integer> bus = new EventBus<>(executor);
+        List<Integer> seen = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        bus.subscribe(e -> {
+            seen.add(e);
+            if (e == 9999) {
+                done.countDown();
+            }
+        }, executor, null);
+        for (int k = 0; k < 10_000; k++) {
+            bus.publish(k);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        for (int k = 0; k < 10_000; k++) {
+            assertEquals((Integer) k, seen.get(k));
+        }
+    }
+
+    @Test
+    void test_coalesce() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        EventBus<Integer> bus = new EventBus<>(executor, Integer::sum);
+        EventBus<Integer> latest = new EventBus<>(executor);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> seen = new ArrayList<>();
+        List<Integer> byDefault = new ArrayList<>();
+        List<Integer> latestSeen = new ArrayList<>();
+        // Holds the only thread of the executor, so that the events of the observer pile up meanwhile.
+        executor.execute(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        bus.subscribe(seen::add, executor, Integer::sum);
+        bus.subscribe(byDefault::add);
+        latest.subscribe(latestSeen::add);
+        long begin = System.nanoTime();
+        for (int k = 1; k <= 100; k++) {
+            bus.publish(k);
+            latest.publish(k);
+        }
+        // The publisher did not wait for the busy observer.
+        assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(1));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(List.of(5050), seen);
+        // Plain subscriptions coalesce with the coalescer of the bus, or keep the latest event when it has none.
+        assertEquals(List.of(5050), byDefault);
+        assertEquals(List.of(100), latestSeen);
+    }
+
+    @Test
+    void test_unsubscribe() throws InterruptedException {
+        EventBus<Integer> bus = new EventBus<>(Runnable::run);
+        List<Integer> seen = new ArrayList<>();
+        Observer<Integer> strong = seen::add;
+        bus.subscribe(strong);
+        bus.subscribeWeak(new ArrayList<Integer>()::add, Runnable::run, null);
+        assertEquals(2, bus.getSubscriberCount());
+        bus.publish(1);
+        bus.unsubscribe(strong);
+        bus.publish(2);
+        assertEquals(List.of(1), seen);
+        // The weak observer is only reachable from the bus, it goes away with the next publications.
+        for (int k = 0; k < 50 && bus.getSubscriberCount() > 0; k++) {
+            System.gc();
+            Thread.sleep(10);
+            bus.publish(3);
+        }
+        assertEquals(0, bus.getSubscriberCount());
+    }
+}